@@ -1,7 +1,9 @@
 package autocomplete;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Suggest exact-character prefix matches for any query {@link CharSequence}.
@@ -10,6 +12,9 @@ import java.util.List;
  * @see SequentialSearchAutocomplete
  * @see BinarySearchAutocomplete
  * @see TernarySearchTreeAutocomplete
+ * @see SegmentTreeAutocomplete
+ * @see UpdatableSegmentTreeAutocomplete
+ * @see DirectedAcyclicWordGraphAutocomplete
  */
 public interface Autocomplete {
     /**
@@ -20,12 +25,52 @@ public interface Autocomplete {
     void addAll(Collection<? extends CharSequence> terms);
 
     /**
-     * Returns all autocompletion terms that match the given prefix.
+     * Adds the given collection of autocompletion terms, each with a weight for ranking by
+     * {@link #topMatches(CharSequence, int)}. Implementations that do not rank terms ignore the weights.
+     *
+     * @param terms  collection containing elements to be added.
+     * @param weight function returning the weight of each term, where heavier terms rank first.
+     */
+    default void addAll(Collection<? extends CharSequence> terms, ToDoubleFunction<? super CharSequence> weight) {
+        addAll(terms);
+    }
+
+    /**
+     * Returns all autocompletion terms that match the given prefix. Implementations backed by a sorted array may return
+     * an unmodifiable view of the matching range rather than a copy.
      *
      * @param prefix search query.
      */
     List<CharSequence> allMatches(CharSequence prefix);
 
+    /**
+     * Returns the number of autocompletion terms that match the given prefix. The default implementation counts the
+     * result of {@link #allMatches(CharSequence)}.
+     *
+     * @param prefix search query.
+     * @return the number of matching terms.
+     */
+    default int countMatches(CharSequence prefix) {
+        return allMatches(prefix).size();
+    }
+
+    /**
+     * Returns up to k autocompletion terms that match the given prefix, heaviest first, with ties in term order.
+     * Implementations that do not rank terms treat every term as equally weighted, so the default implementation
+     * returns the first k of {@link #allMatches(CharSequence)}.
+     *
+     * @param prefix search query.
+     * @param k      maximum number of terms to return.
+     * @return up to k matching terms.
+     */
+    default List<CharSequence> topMatches(CharSequence prefix, int k) {
+        List<CharSequence> matches = allMatches(prefix);
+        if (matches.size() > k) {
+            return new ArrayList<>(matches.subList(0, Math.max(k, 0)));
+        }
+        return matches;
+    }
+
     /**
      * Returns true if and only if the given term matches the given prefix.
      *
@@ -34,10 +79,28 @@ public interface Autocomplete {
      * @return true if and only if the given term matches the given prefix.
      */
     static boolean isPrefixOf(CharSequence prefix, CharSequence term) {
-        if (prefix.length() <= term.length()) {
-            CharSequence part = term.subSequence(0, prefix.length());
-            return CharSequence.compare(prefix, part) == 0;
+        return compareToPrefix(term, prefix) == 0;
+    }
+
+    /**
+     * Compares the term to the given prefix, treating every term that begins with the prefix as equal to it. Unlike
+     * {@link CharSequence#compare(CharSequence, CharSequence)} on a {@code subSequence}, this compares characters in
+     * place without allocating, which matters for terms such as long suffixes of a shared text.
+     *
+     * @param term   term to compare.
+     * @param prefix prefix template.
+     * @return a negative integer, zero, or a positive integer as the term sorts before all terms matching the prefix,
+     * matches the prefix, or sorts after all terms matching the prefix.
+     */
+    static int compareToPrefix(CharSequence term, CharSequence prefix) {
+        int length = Math.min(term.length(), prefix.length());
+        for (int i = 0; i < length; i += 1) {
+            char a = term.charAt(i);
+            char b = prefix.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
         }
-        return false;
+        return term.length() < prefix.length() ? -1 : 0;
     }
 }
@@ -1,46 +1,78 @@
 package autocomplete;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
- * Binary search implementation of the {@link Autocomplete} interface.
+ * Binary search implementation of the {@link Autocomplete} interface. Queries binary search for both ends of the range
+ * of matching terms and return an unmodifiable view of that range, so a query allocates nothing in proportion to the
+ * number of matches or the length of the terms. Terms are sorted in parallel when added.
+ * <p>
+ * As in {@link TreeSetAutocomplete}, an empty or null prefix matches no terms.
  *
  * @see Autocomplete
  */
 public class BinarySearchAutocomplete implements Autocomplete {
     /**
-     * {@link List} of added autocompletion terms.
+     * Added autocompletion terms in sorted order. Adding terms replaces the array rather than modifying it, so
+     * previously returned views are unaffected.
      */
-    private final List<CharSequence> terms;
+    private CharSequence[] terms;
 
     /**
      * Constructs an empty instance.
      */
     public BinarySearchAutocomplete() {
-        this.terms = new ArrayList<>();
+        this.terms = new CharSequence[0];
     }
 
     @Override
     public void addAll(Collection<? extends CharSequence> terms) {
-        this.terms.addAll(terms);
-        Collections.sort(this.terms, CharSequence::compare);
+        CharSequence[] added = terms.toArray(new CharSequence[0]);
+        CharSequence[] result = Arrays.copyOf(this.terms, this.terms.length + added.length);
+        System.arraycopy(added, 0, result, this.terms.length, added.length);
+        Arrays.parallelSort(result, CharSequence::compare);
+        this.terms = result;
         System.out.println(String.format("%d terms added", terms.size()));
     }
 
     @Override
     public List<CharSequence> allMatches(CharSequence prefix) {
-        List<CharSequence> output = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0) {
+            return List.of();
+        }
+        int lo = bound(prefix, 0);
+        int hi = bound(prefix, 1);
+        return Collections.unmodifiableList(Arrays.asList(terms).subList(lo, hi));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        return bound(prefix, 1) - bound(prefix, 0);
+    }
 
-        int index = Collections.binarySearch(this.terms, prefix, CharSequence::compare);
-        if (index < 0) index = -(index + 1);
-        for (int i = index; i < this.terms.size(); i++) {
-            CharSequence curr = this.terms.get(i);
-            if (!curr.toString().startsWith(prefix.toString())) return output;
-            else                                                output.add(curr);
+    /**
+     * Returns the index of the first term that compares to the prefix at least as large as the given order: 0 for the
+     * first term matching or following the prefix, or 1 for the first term following every match.
+     *
+     * @param prefix search query.
+     * @param order  0 for the lower bound of the matching range, or 1 for the upper bound.
+     * @return the index of the bound.
+     * @see Autocomplete#compareToPrefix(CharSequence, CharSequence)
+     */
+    private int bound(CharSequence prefix, int order) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Integer.signum(Autocomplete.compareToPrefix(terms[mid], prefix)) < order) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
         }
-        return output;
+        return lo;
     }
 }
@@ -0,0 +1,220 @@
+package autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Array-backed ternary search tree (TST) implementation of the {@link Autocomplete} interface. Rather than one object
+ * per node, each node is an index into parallel primitive arrays, so a node costs 15 bytes instead of a full object
+ * with references. Insertion, search, and collection are iterative, and collection builds every match in a single
+ * {@link StringBuilder}.
+ *
+ * @see Autocomplete
+ * @see TernarySearchTreeAutocomplete
+ */
+public class CompactTernarySearchTreeAutocomplete implements Autocomplete {
+    /**
+     * Index representing the absence of a node.
+     */
+    private static final int NONE = -1;
+    /**
+     * The character of each node.
+     */
+    private char[] chars;
+    /**
+     * The index of each node's left child, whose character is smaller, or {@code NONE}.
+     */
+    private int[] left;
+    /**
+     * The index of each node's middle child, the next character of the same term, or {@code NONE}.
+     */
+    private int[] mid;
+    /**
+     * The index of each node's right child, whose character is larger, or {@code NONE}.
+     */
+    private int[] right;
+    /**
+     * Whether each node ends a term.
+     */
+    private boolean[] isTerm;
+    /**
+     * Number of nodes in the tree. The root, if any, is node 0.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public CompactTernarySearchTreeAutocomplete() {
+        chars = new char[16];
+        left = new int[16];
+        mid = new int[16];
+        right = new int[16];
+        isTerm = new boolean[16];
+        size = 0;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        for (CharSequence term : terms) {
+            add(term);
+        }
+    }
+
+    /**
+     * Inserts the term into the tree.
+     */
+    private void add(CharSequence term) {
+        if (term.length() == 0) {
+            return;
+        }
+        if (size == 0) {
+            newNode(term.charAt(0));
+        }
+        int node = 0;
+        int i = 0;
+        while (true) {
+            char c = term.charAt(i);
+            // Create children before storing their index, since creating a node may replace the arrays.
+            if (c < chars[node]) {
+                if (left[node] == NONE) {
+                    int child = newNode(c);
+                    left[node] = child;
+                }
+                node = left[node];
+            } else if (c > chars[node]) {
+                if (right[node] == NONE) {
+                    int child = newNode(c);
+                    right[node] = child;
+                }
+                node = right[node];
+            } else if (i == term.length() - 1) {
+                isTerm[node] = true;
+                return;
+            } else {
+                i += 1;
+                if (mid[node] == NONE) {
+                    int child = newNode(term.charAt(i));
+                    mid[node] = child;
+                }
+                node = mid[node];
+            }
+        }
+    }
+
+    /**
+     * Appends a new node with the given character and no children, and returns its index.
+     */
+    private int newNode(char c) {
+        if (size == chars.length) {
+            int capacity = size * 2;
+            chars = Arrays.copyOf(chars, capacity);
+            left = Arrays.copyOf(left, capacity);
+            mid = Arrays.copyOf(mid, capacity);
+            right = Arrays.copyOf(right, capacity);
+            isTerm = Arrays.copyOf(isTerm, capacity);
+        }
+        chars[size] = c;
+        left[size] = NONE;
+        mid[size] = NONE;
+        right[size] = NONE;
+        isTerm[size] = false;
+        size += 1;
+        return size - 1;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || size == 0) {
+            return result;
+        }
+        // Find the node for the last character of the prefix.
+        int node = 0;
+        int i = 0;
+        while (node != NONE) {
+            char c = prefix.charAt(i);
+            if (c < chars[node]) {
+                node = left[node];
+            } else if (c > chars[node]) {
+                node = right[node];
+            } else if (i == prefix.length() - 1) {
+                break;
+            } else {
+                i += 1;
+                node = mid[node];
+            }
+        }
+        if (node == NONE) {
+            return result;
+        }
+        StringBuilder term = new StringBuilder(prefix);
+        if (isTerm[node]) {
+            result.add(term.toString());
+        }
+        collect(mid[node], term, result);
+        return result;
+    }
+
+    /**
+     * Adds all terms in the subtree rooted at the node to the result in sorted order, where every term in the subtree
+     * begins with the given characters.
+     *
+     * @param root   the root of the subtree, or {@code NONE}.
+     * @param term   the characters preceding the subtree, reused as the buffer for building each term.
+     * @param result the list of terms.
+     */
+    private void collect(int root, StringBuilder term, List<CharSequence> result) {
+        if (root == NONE) {
+            return;
+        }
+        int base = term.length();
+        // In-order traversal with an explicit stack of (node, depth) pairs. A node is pushed as its complement until
+        // its left subtree has been visited, and then as itself to emit its character and descend into the middle.
+        int[] nodes = new int[16];
+        int[] depths = new int[16];
+        int top = 0;
+        nodes[top] = ~root;
+        depths[top] = base;
+        top += 1;
+        while (top > 0) {
+            top -= 1;
+            int entry = nodes[top];
+            int depth = depths[top];
+            if (top + 3 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (entry < 0) {
+                int node = ~entry;
+                if (right[node] != NONE) {
+                    nodes[top] = ~right[node];
+                    depths[top] = depth;
+                    top += 1;
+                }
+                nodes[top] = node;
+                depths[top] = depth;
+                top += 1;
+                if (left[node] != NONE) {
+                    nodes[top] = ~left[node];
+                    depths[top] = depth;
+                    top += 1;
+                }
+            } else {
+                term.setLength(depth);
+                term.append(chars[entry]);
+                if (isTerm[entry]) {
+                    result.add(term.toString());
+                }
+                if (mid[entry] != NONE) {
+                    nodes[top] = ~mid[entry];
+                    depths[top] = depth + 1;
+                    top += 1;
+                }
+            }
+        }
+        term.setLength(base);
+    }
+}
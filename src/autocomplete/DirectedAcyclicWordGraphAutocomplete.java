@@ -0,0 +1,313 @@
+package autocomplete;
+
+import java.util.*;
+
+/**
+ * Directed acyclic word graph (DAWG) implementation of the {@link Autocomplete} interface. The terms are stored as a
+ * minimal deterministic automaton, built incrementally from the sorted terms so that identical suffixes, such as the
+ * many place names ending in " Street" or "ville", share the same states. Once built, the automaton is frozen into
+ * parallel primitive arrays where the outgoing edges of each state are contiguous and sorted by character.
+ * <p>
+ * Each state also stores the number of terms reachable from it, so {@link #countMatches(CharSequence)} only needs to
+ * walk the prefix. Adding terms rebuilds the automaton from the union of the old and new terms.
+ *
+ * @see Autocomplete
+ * @see CompactTernarySearchTreeAutocomplete
+ */
+public class DirectedAcyclicWordGraphAutocomplete implements Autocomplete {
+    /**
+     * Index representing the absence of a state.
+     */
+    private static final int NONE = -1;
+    /**
+     * Edges of state {@code s} are the indices from {@code first[s]} up to but not including {@code first[s + 1]}.
+     */
+    private int[] first;
+    /**
+     * The character labeling each edge.
+     */
+    private char[] labels;
+    /**
+     * The state each edge leads to.
+     */
+    private int[] targets;
+    /**
+     * Whether each state accepts, ending a term.
+     */
+    private boolean[] isFinal;
+    /**
+     * Number of terms accepted from each state.
+     */
+    private int[] counts;
+    /**
+     * The start state, or {@code NONE} if there are no terms.
+     */
+    private int root;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public DirectedAcyclicWordGraphAutocomplete() {
+        first = new int[]{0};
+        labels = new char[0];
+        targets = new int[0];
+        isFinal = new boolean[0];
+        counts = new int[0];
+        root = NONE;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        List<String> all = new ArrayList<>(terms.size() + size());
+        if (root != NONE) {
+            collect(root, new StringBuilder(), all);
+        }
+        for (CharSequence term : terms) {
+            if (term.length() > 0) {
+                all.add(term.toString());
+            }
+        }
+        String[] sorted = all.toArray(new String[0]);
+        Arrays.parallelSort(sorted);
+        new Builder().build(Arrays.asList(sorted));
+    }
+
+    /**
+     * Returns the number of terms.
+     */
+    private int size() {
+        return root == NONE ? 0 : counts[root];
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0) {
+            return result;
+        }
+        int state = find(prefix);
+        if (state != NONE) {
+            collect(state, new StringBuilder(prefix), result);
+        }
+        return result;
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        int state = find(prefix);
+        return state == NONE ? 0 : counts[state];
+    }
+
+    /**
+     * Returns the state reached by reading the prefix from the start state, or {@code NONE} if no term begins with
+     * the prefix.
+     */
+    private int find(CharSequence prefix) {
+        int state = root;
+        for (int i = 0; i < prefix.length() && state != NONE; i += 1) {
+            state = next(state, prefix.charAt(i));
+        }
+        return state;
+    }
+
+    /**
+     * Returns the state reached from the state by the edge labeled with the character, or {@code NONE} if there is no
+     * such edge.
+     */
+    private int next(int state, char c) {
+        int lo = first[state];
+        int hi = first[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (labels[mid] < c) {
+                lo = mid + 1;
+            } else if (labels[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Adds all terms accepted from the state to the result in sorted order, where every term begins with the given
+     * characters.
+     *
+     * @param state  the state to start from.
+     * @param term   the characters read so far, reused as the buffer for building each term.
+     * @param result the list of terms.
+     */
+    private void collect(int state, StringBuilder term, List<? super String> result) {
+        if (isFinal[state]) {
+            result.add(term.toString());
+        }
+        int length = term.length();
+        for (int e = first[state]; e < first[state + 1]; e += 1) {
+            term.append(labels[e]);
+            collect(targets[e], term, result);
+            term.setLength(length);
+        }
+    }
+
+    /**
+     * Builds the minimal automaton for a sorted list of terms using the incremental algorithm of Daciuk et al. Only
+     * the path for the most recent term is still open to new edges. When the next term diverges from it, the states
+     * past the common prefix can no longer change, so each is replaced by an equivalent registered state if one exists,
+     * or else frozen and registered itself.
+     */
+    private class Builder {
+        /**
+         * Registered states by signature: whether the state accepts, then each edge's label and target.
+         */
+        private final Map<String, Integer> register = new HashMap<>();
+        /**
+         * The open states along the path of the most recent term, where {@code path.get(d)} is at depth {@code d}.
+         */
+        private final List<OpenState> path = new ArrayList<>();
+        /**
+         * Number of registered states and edges.
+         */
+        private int numStates;
+        private int numEdges;
+
+        /**
+         * Replaces the automaton with one accepting exactly the sorted terms, ignoring duplicates.
+         *
+         * @param terms the sorted list of terms.
+         */
+        void build(List<String> terms) {
+            first = new int[16];
+            labels = new char[16];
+            targets = new int[16];
+            isFinal = new boolean[16];
+            counts = new int[16];
+            path.add(new OpenState());
+            String previous = "";
+            for (String term : terms) {
+                if (term.equals(previous)) {
+                    continue;
+                }
+                int common = 0;
+                int max = Math.min(previous.length(), term.length());
+                while (common < max && previous.charAt(common) == term.charAt(common)) {
+                    common += 1;
+                }
+                close(common, previous.length());
+                for (int d = common; d < term.length(); d += 1) {
+                    path.get(d).open(term.charAt(d));
+                    if (path.size() == d + 1) {
+                        path.add(new OpenState());
+                    }
+                    path.get(d + 1).clear();
+                }
+                path.get(term.length()).isFinal = true;
+                previous = term;
+            }
+            close(0, previous.length());
+            root = terms.isEmpty() ? NONE : register(path.get(0));
+            first[numStates] = numEdges;
+            first = Arrays.copyOf(first, numStates + 1);
+            labels = Arrays.copyOf(labels, numEdges);
+            targets = Arrays.copyOf(targets, numEdges);
+            isFinal = Arrays.copyOf(isFinal, numStates);
+            counts = Arrays.copyOf(counts, numStates);
+        }
+
+        /**
+         * Registers the open states deeper than the given depth, from the deepest up, linking each to its parent.
+         *
+         * @param depth  the depth of the deepest state that stays open.
+         * @param length the depth of the deepest open state.
+         */
+        private void close(int depth, int length) {
+            for (int d = length; d > depth; d -= 1) {
+                path.get(d - 1).link(register(path.get(d)));
+            }
+        }
+
+        /**
+         * Returns the registered state equivalent to the open state, registering it if there is none.
+         */
+        private int register(OpenState open) {
+            StringBuilder key = new StringBuilder(1 + 3 * open.size);
+            key.append(open.isFinal ? '1' : '0');
+            for (int i = 0; i < open.size; i += 1) {
+                key.append(open.labels[i]);
+                key.append((char) (open.targets[i] >>> 16));
+                key.append((char) open.targets[i]);
+            }
+            String signature = key.toString();
+            Integer existing = register.get(signature);
+            if (existing != null) {
+                return existing;
+            }
+            if (numStates + 1 >= first.length) {
+                int capacity = first.length * 2;
+                first = Arrays.copyOf(first, capacity);
+                isFinal = Arrays.copyOf(isFinal, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            if (numEdges + open.size > labels.length) {
+                int capacity = Math.max(labels.length * 2, numEdges + open.size);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            int state = numStates;
+            first[state] = numEdges;
+            isFinal[state] = open.isFinal;
+            int count = open.isFinal ? 1 : 0;
+            for (int i = 0; i < open.size; i += 1) {
+                labels[numEdges] = open.labels[i];
+                targets[numEdges] = open.targets[i];
+                count += counts[open.targets[i]];
+                numEdges += 1;
+            }
+            counts[state] = count;
+            numStates += 1;
+            register.put(signature, state);
+            return state;
+        }
+    }
+
+    /**
+     * A state under construction whose last edge may still lead to another open state.
+     */
+    private static class OpenState {
+        private char[] labels = new char[4];
+        private int[] targets = new int[4];
+        private int size;
+        private boolean isFinal;
+
+        /**
+         * Adds an edge with the given label to a target that is not yet registered.
+         */
+        void open(char label) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            labels[size] = label;
+            targets[size] = NONE;
+            size += 1;
+        }
+
+        /**
+         * Points the last edge to the given registered state.
+         */
+        void link(int target) {
+            targets[size - 1] = target;
+        }
+
+        /**
+         * Removes all edges and makes the state non-accepting.
+         */
+        void clear() {
+            size = 0;
+            isFinal = false;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Weighted implementation of the {@link Autocomplete} interface for ranked top-<i>k</i> queries. Terms are kept in a
+ * sorted array so that the matches for any prefix form a contiguous range, and a segment tree over the array stores
+ * the heaviest term in each node's subtree. {@link #topMatches(CharSequence, int)} walks the tree best-first from the
+ * nodes covering the matching range, so its cost depends on <i>k</i> and the tree height rather than the number of
+ * matches.
+ *
+ * @see Autocomplete
+ * @see BinarySearchAutocomplete
+ */
+public class SegmentTreeAutocomplete implements Autocomplete {
+    /**
+     * Added autocompletion terms in sorted order.
+     */
+    private CharSequence[] terms;
+    /**
+     * Weights of the terms: {@code weights[i]} is the weight of {@code terms[i]}.
+     */
+    private double[] weights;
+    /**
+     * Number of leaves in the segment tree, the least power of 2 not less than the number of terms.
+     */
+    private int leaves;
+    /**
+     * Segment tree in heap order, rooted at index 1, where the leaf for term {@code i} is {@code leaves + i} and each
+     * node stores the index of the heaviest term in its subtree, or -1 if the subtree holds no terms.
+     */
+    private int[] tree;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public SegmentTreeAutocomplete() {
+        this.terms = new CharSequence[0];
+        this.weights = new double[0];
+        this.leaves = 1;
+        this.tree = new int[]{-1, -1};
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        addAll(terms, term -> 0.0);
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms, ToDoubleFunction<? super CharSequence> weight) {
+        // Sort the old and new terms together, then keep the larger weight for repeated terms.
+        List<WeightedTerm> all = new ArrayList<>(this.terms.length + terms.size());
+        for (int i = 0; i < this.terms.length; i += 1) {
+            all.add(new WeightedTerm(this.terms[i], this.weights[i]));
+        }
+        for (CharSequence term : terms) {
+            all.add(new WeightedTerm(term, weight.applyAsDouble(term)));
+        }
+        WeightedTerm[] sorted = all.toArray(new WeightedTerm[0]);
+        Arrays.parallelSort(sorted, (a, b) -> CharSequence.compare(a.term, b.term));
+        int n = 0;
+        for (int i = 0; i < sorted.length; i += 1) {
+            if (n > 0 && CharSequence.compare(sorted[n - 1].term, sorted[i].term) == 0) {
+                sorted[n - 1].weight = Math.max(sorted[n - 1].weight, sorted[i].weight);
+            } else {
+                sorted[n] = sorted[i];
+                n += 1;
+            }
+        }
+        this.terms = new CharSequence[n];
+        this.weights = new double[n];
+        for (int i = 0; i < n; i += 1) {
+            this.terms[i] = sorted[i].term;
+            this.weights[i] = sorted[i].weight;
+        }
+        leaves = 1;
+        while (leaves < n) {
+            leaves *= 2;
+        }
+        tree = new int[2 * leaves];
+        for (int i = 0; i < leaves; i += 1) {
+            tree[leaves + i] = i < n ? i : -1;
+        }
+        for (int i = leaves - 1; i >= 1; i -= 1) {
+            tree[i] = heavier(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return List.of();
+        }
+        int lo = lowerBound(prefix);
+        int hi = upperBound(prefix, lo);
+        return Collections.unmodifiableList(Arrays.asList(terms).subList(lo, hi));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        int lo = lowerBound(prefix);
+        return upperBound(prefix, lo) - lo;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || k <= 0) {
+            return result;
+        }
+        int lo = lowerBound(prefix);
+        int hi = upperBound(prefix, lo);
+        // Nodes ordered by the heaviest term in their subtree, breaking ties by term order.
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> {
+            int cmp = Double.compare(weights[tree[b]], weights[tree[a]]);
+            return cmp != 0 ? cmp : Integer.compare(tree[a], tree[b]);
+        });
+        // Start from the nodes that exactly cover the matching range [lo, hi).
+        for (int l = lo + leaves, r = hi + leaves; l < r; l /= 2, r /= 2) {
+            if ((l & 1) == 1) {
+                frontier.add(l);
+                l += 1;
+            }
+            if ((r & 1) == 1) {
+                r -= 1;
+                frontier.add(r);
+            }
+        }
+        while (!frontier.isEmpty() && result.size() < k) {
+            int node = frontier.remove();
+            if (node >= leaves) {
+                result.add(terms[node - leaves]);
+            } else {
+                for (int child = 2 * node; child <= 2 * node + 1; child += 1) {
+                    if (tree[child] != -1) {
+                        frontier.add(child);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an unmodifiable view of all terms in sorted order.
+     */
+    List<CharSequence> terms() {
+        return Collections.unmodifiableList(Arrays.asList(terms));
+    }
+
+    /**
+     * Returns the weight of the given term, or NaN if it is not a term.
+     */
+    double weight(CharSequence term) {
+        int i = lowerBound(term);
+        if (i < terms.length && CharSequence.compare(terms[i], term) == 0) {
+            return weights[i];
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the index of the heavier of the two terms, preferring the earlier term on ties. Either index may be -1
+     * for no term.
+     */
+    private int heavier(int i, int j) {
+        if (i == -1) {
+            return j;
+        } else if (j == -1) {
+            return i;
+        }
+        return weights[j] > weights[i] ? j : i;
+    }
+
+    /**
+     * Returns the index of the first term not less than the prefix.
+     */
+    private int lowerBound(CharSequence prefix) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (CharSequence.compare(terms[mid], prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the first term at or after {@code from} that does not start with the prefix, given that
+     * every term from {@code from} up to that index does.
+     */
+    private int upperBound(CharSequence prefix, int from) {
+        int lo = from;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Autocomplete.isPrefixOf(prefix, terms[mid])) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * A term paired with its weight for sorting.
+     */
+    private static class WeightedTerm {
+        private final CharSequence term;
+        private double weight;
+
+        WeightedTerm(CharSequence term, double weight) {
+            this.term = term;
+            this.weight = weight;
+        }
+    }
+}
@@ -4,11 +4,17 @@ import java.util.*;
 import java.lang.CharSequence;
 
 /**
- * Ternary search tree (TST) implementation of the {@link Autocomplete} interface.
+ * Ternary search tree (TST) implementation of the {@link Autocomplete} interface. Adding many terms to an empty tree
+ * builds the subtree for each first character in parallel, since terms with different first characters never share
+ * nodes below the root level.
  *
  * @see Autocomplete
  */
 public class TernarySearchTreeAutocomplete implements Autocomplete {
+    /**
+     * Minimum number of terms added to an empty tree for building it in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 10000;
     /**
      * The overall root of the tree: the first character of the first autocompletion term added to this tree.
      */
@@ -23,15 +29,52 @@ public class TernarySearchTreeAutocomplete implements Autocomplete {
 
     @Override
     public void addAll(Collection<? extends CharSequence> terms) {
-        for (CharSequence term : terms) {
-            //System.out.println("\n\n==========new term: " + term);
-            this.addOne(term);
-            //System.out.println(this.overallRoot.printTree(0, ""));
+        if (this.overallRoot == null && terms.size() >= PARALLEL_THRESHOLD) {
+            this.overallRoot = buildParallel(terms);
+        } else {
+            for (CharSequence term : terms) {
+                //System.out.println("\n\n==========new term: " + term);
+                this.addOne(term);
+                //System.out.println(this.overallRoot.printTree(0, ""));
+            }
         }
         //System.out.println(this.getAllTerms());
         System.out.println(String.format("%d terms have been added.", terms.size()));
     }
 
+    /**
+     * Builds a tree containing the terms by partitioning them by first character, building the subtree for each
+     * partition in parallel, and joining the subtrees' roots into a balanced binary search tree.
+     */
+    private static Node buildParallel(Collection<? extends CharSequence> terms) {
+        Map<Character, List<CharSequence>> partitions = new TreeMap<>();
+        for (CharSequence term : terms) {
+            if (term.length() > 0) {
+                partitions.computeIfAbsent(term.charAt(0), c -> new ArrayList<>()).add(term);
+            }
+        }
+        // Each subtree's root holds its first character, with no left or right children yet.
+        Node[] roots = partitions.values().parallelStream().map(partition -> {
+            TernarySearchTreeAutocomplete subtree = new TernarySearchTreeAutocomplete();
+            for (CharSequence term : partition) {
+                subtree.addOne(term);
+            }
+            return subtree.overallRoot;
+        }).toArray(Node[]::new);
+        return balance(roots, 0, roots.length);
+    }
+
+    /**
+     * Links the roots sorted by character between the given indices into a balanced binary search tree.
+     */
+    private static Node balance(Node[] roots, int lo, int hi) {
+        if (lo >= hi) return null;
+        int mid = (lo + hi) >>> 1;
+        roots[mid].left = balance(roots, lo, mid);
+        roots[mid].right = balance(roots, mid + 1, hi);
+        return roots[mid];
+    }
+
     /**
      * Insert a new term into the tree.
      */
@@ -31,11 +31,7 @@ public class TreeSetAutocomplete implements Autocomplete {
         if (prefix == null || prefix.length() == 0) {
             return result;
         }
-        CharSequence start = terms.ceiling(prefix);
-        if (start == null) {
-            return result;
-        }
-        for (CharSequence term : terms.tailSet(start)) {
+        for (CharSequence term : terms.tailSet(prefix, true)) {
             if (Autocomplete.isPrefixOf(prefix, term)) {
                 result.add(term);
             } else {
@@ -0,0 +1,230 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Weighted implementation of the {@link Autocomplete} interface that supports cheap updates and removals. Terms live in
+ * a static {@link SegmentTreeAutocomplete} plus a small sorted buffer of pending changes: terms added or reweighted
+ * since the tree was built, and tree terms hidden because they were removed or reweighted. Queries merge the buffer
+ * into the tree's results, so updates cost time logarithmic in the buffer size instead of a full rebuild. Once the
+ * buffer outgrows the square root of the number of terms, the next update compacts it into a new segment tree.
+ * <p>
+ * The segment tree is never modified after it is built, so copies made with the copy constructor share it and cost
+ * time linear in the buffer size. This lets a caller publish an updated copy to concurrent readers instead of
+ * rebuilding. Instances are not themselves thread-safe.
+ *
+ * @see Autocomplete
+ * @see SegmentTreeAutocomplete
+ */
+public class UpdatableSegmentTreeAutocomplete implements Autocomplete {
+    /**
+     * Minimum number of pending changes before the buffer is compacted.
+     */
+    private static final int MIN_PENDING = 64;
+    /**
+     * Ranks heavier terms first, breaking ties by term order as {@link SegmentTreeAutocomplete} does.
+     */
+    private static final Comparator<Map.Entry<CharSequence, Double>> BY_WEIGHT = (a, b) -> {
+        int cmp = Double.compare(b.getValue(), a.getValue());
+        return cmp != 0 ? cmp : CharSequence.compare(a.getKey(), b.getKey());
+    };
+
+    /**
+     * Terms as of the last compaction.
+     */
+    private SegmentTreeAutocomplete tree;
+    /**
+     * Terms added or reweighted since the last compaction, with their current weights.
+     */
+    private final TreeMap<CharSequence, Double> added;
+    /**
+     * Terms in the tree that were removed or reweighted since the last compaction.
+     */
+    private final TreeSet<CharSequence> hidden;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public UpdatableSegmentTreeAutocomplete() {
+        this.tree = new SegmentTreeAutocomplete();
+        this.added = new TreeMap<>(CharSequence::compare);
+        this.hidden = new TreeSet<>(CharSequence::compare);
+    }
+
+    /**
+     * Constructs a copy of the given instance that shares its segment tree. Updates to either instance do not affect
+     * the other.
+     *
+     * @param other the instance to copy.
+     */
+    public UpdatableSegmentTreeAutocomplete(UpdatableSegmentTreeAutocomplete other) {
+        this.tree = other.tree;
+        this.added = new TreeMap<>(other.added);
+        this.hidden = new TreeSet<>(other.hidden);
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        addAll(terms, term -> 0.0);
+    }
+
+    /**
+     * Adds the given collection of autocompletion terms, each with a weight for ranking by
+     * {@link #topMatches(CharSequence, int)}. A term added more than once keeps its largest weight.
+     *
+     * @param terms  collection containing elements to be added.
+     * @param weight function returning the weight of each term, where heavier terms rank first.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms, ToDoubleFunction<? super CharSequence> weight) {
+        if (added.isEmpty() && hidden.isEmpty() && terms.size() > MIN_PENDING) {
+            // Bulk loads go straight into a new tree rather than through the buffer; copies may share the old one.
+            SegmentTreeAutocomplete rebuilt = new SegmentTreeAutocomplete();
+            rebuilt.addAll(tree.terms(), tree::weight);
+            rebuilt.addAll(terms, weight);
+            tree = rebuilt;
+            return;
+        }
+        for (CharSequence term : terms) {
+            double w = weight.applyAsDouble(term);
+            Double pending = added.get(term);
+            double old = pending != null ? pending : hidden.contains(term) ? Double.NaN : tree.weight(term);
+            if (!Double.isNaN(old)) {
+                if (old >= w) {
+                    continue;
+                }
+                if (pending == null) {
+                    hidden.add(term);
+                }
+            }
+            added.put(term, w);
+        }
+        compactIfFull();
+    }
+
+    /**
+     * Removes the given collection of autocompletion terms. Terms that are not present are ignored.
+     *
+     * @param terms collection containing elements to be removed.
+     * @return true if any term was removed.
+     */
+    public boolean removeAll(Collection<? extends CharSequence> terms) {
+        boolean changed = false;
+        for (CharSequence term : terms) {
+            if (added.remove(term) != null) {
+                changed = true;
+            } else if (!hidden.contains(term) && !Double.isNaN(tree.weight(term))) {
+                hidden.add(term);
+                changed = true;
+            }
+        }
+        compactIfFull();
+        return changed;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return List.of();
+        }
+        List<CharSequence> matches = tree.allMatches(prefix);
+        if (added.isEmpty() && hidden.isEmpty()) {
+            return matches;
+        }
+        // Merge the tree's matches with the added matches, both in term order, skipping hidden terms.
+        Iterator<CharSequence> pending = matching(added.navigableKeySet(), prefix).iterator();
+        CharSequence next = pending.hasNext() ? pending.next() : null;
+        List<CharSequence> result = new ArrayList<>();
+        for (CharSequence term : matches) {
+            while (next != null && CharSequence.compare(next, term) < 0) {
+                result.add(next);
+                next = pending.hasNext() ? pending.next() : null;
+            }
+            if (!hidden.contains(term)) {
+                result.add(term);
+            }
+        }
+        while (next != null) {
+            result.add(next);
+            next = pending.hasNext() ? pending.next() : null;
+        }
+        return result;
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        return tree.countMatches(prefix) - matching(hidden, prefix).size()
+                + matching(added.navigableKeySet(), prefix).size();
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        if (prefix == null || prefix.length() == 0 || k <= 0) {
+            return new ArrayList<>();
+        }
+        if (added.isEmpty() && hidden.isEmpty()) {
+            return tree.topMatches(prefix, k);
+        }
+        // Ask the tree for enough extra terms to make up for hidden ones, then merge with the added terms by weight.
+        int numHidden = matching(hidden, prefix).size();
+        int extra = k > Integer.MAX_VALUE - numHidden ? Integer.MAX_VALUE : k + numHidden;
+        List<Map.Entry<CharSequence, Double>> candidates = new ArrayList<>();
+        for (CharSequence term : tree.topMatches(prefix, extra)) {
+            if (!hidden.contains(term)) {
+                candidates.add(Map.entry(term, tree.weight(term)));
+            }
+        }
+        for (CharSequence term : matching(added.navigableKeySet(), prefix)) {
+            candidates.add(Map.entry(term, added.get(term)));
+        }
+        candidates.sort(BY_WEIGHT);
+        List<CharSequence> result = new ArrayList<>(Math.min(k, candidates.size()));
+        for (int i = 0; i < candidates.size() && result.size() < k; i += 1) {
+            result.add(candidates.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the terms in the sorted set that match the given prefix.
+     */
+    private static NavigableSet<CharSequence> matching(NavigableSet<CharSequence> terms, CharSequence prefix) {
+        NavigableSet<CharSequence> tail = terms.tailSet(prefix, true);
+        for (CharSequence term : tail) {
+            if (!Autocomplete.isPrefixOf(prefix, term)) {
+                return tail.headSet(term, false);
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Rebuilds the segment tree with the pending changes once there are more of them than the square root of the
+     * number of terms, so that their cost to queries stays small relative to the cost of a rebuild.
+     */
+    private void compactIfFull() {
+        int pending = added.size() + hidden.size();
+        if (pending <= MIN_PENDING || (long) pending * pending <= tree.terms().size()) {
+            return;
+        }
+        List<CharSequence> terms = new ArrayList<>(tree.terms().size() + added.size());
+        for (CharSequence term : tree.terms()) {
+            if (!hidden.contains(term)) {
+                terms.add(term);
+            }
+        }
+        terms.addAll(added.keySet());
+        SegmentTreeAutocomplete compacted = new SegmentTreeAutocomplete();
+        compacted.addAll(terms, term -> {
+            Double w = added.get(term);
+            return w != null ? w : tree.weight(term);
+        });
+        tree = compacted;
+        added.clear();
+        hidden.clear();
+    }
+}
@@ -6,12 +6,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.ref.Reference;
 import java.util.*;
 import java.util.function.Supplier;
 import java.util.zip.GZIPInputStream;
 
 /**
- * Run timing experiments and save a CSV file for each {@link Autocomplete} implementation.
+ * Run timing and memory experiments and save a CSV file for each {@link Autocomplete} implementation. Each row holds
+ * the input size, the average {@code addAll} and {@code allMatches} times in seconds, and the bytes retained by one
+ * loaded instance, not counting the terms themselves.
  */
 class CitiesInputSizeExperiments {
     /**
@@ -54,7 +57,9 @@ class CitiesInputSizeExperiments {
                 "TreeSetAutocomplete", TreeSetAutocomplete::new,
                 "SequentialSearchAutocomplete", SequentialSearchAutocomplete::new,
                 "BinarySearchAutocomplete", BinarySearchAutocomplete::new,
-                "TernarySearchTreeAutocomplete", TernarySearchTreeAutocomplete::new
+                "TernarySearchTreeAutocomplete", TernarySearchTreeAutocomplete::new,
+                "CompactTernarySearchTreeAutocomplete", CompactTernarySearchTreeAutocomplete::new,
+                "DirectedAcyclicWordGraphAutocomplete", DirectedAcyclicWordGraphAutocomplete::new
         );
         for (String name : implementations.keySet()) {
             System.out.println();
@@ -97,6 +102,14 @@ class CitiesInputSizeExperiments {
                 out.printf("%.10f", totalAddTime / NUM_TRIALS);
                 out.print(',');
                 out.printf("%.10f", totalQueryTime / NUM_TRIALS);
+                out.print(',');
+
+                // Finally, measure the memory retained by one loaded instance.
+                long memoryStart = usedMemory();
+                Autocomplete loaded = implementations.get(name).get();
+                loaded.addAll(dataset);
+                out.print(usedMemory() - memoryStart);
+                Reference.reachabilityFence(loaded);
                 out.println();
             }
 
@@ -104,4 +117,15 @@ class CitiesInputSizeExperiments {
             out.close();
         }
     }
+
+    /**
+     * Returns the number of bytes in use on the heap after requesting garbage collection.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i += 1) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 }
@@ -15,6 +15,10 @@ import java.util.zip.GZIPInputStream;
  * @see SequentialSearchAutocomplete
  * @see BinarySearchAutocomplete
  * @see TernarySearchTreeAutocomplete
+ * @see SegmentTreeAutocomplete
+ * @see UpdatableSegmentTreeAutocomplete
+ * @see CompactTernarySearchTreeAutocomplete
+ * @see DirectedAcyclicWordGraphAutocomplete
  */
 class CitiesMultiTest {
     /**
@@ -59,7 +63,11 @@ class CitiesMultiTest {
         Map<String, Autocomplete> implementations = Map.of(
                 "SequentialSearchAutocomplete", new SequentialSearchAutocomplete(),
                 "BinarySearchAutocomplete", new BinarySearchAutocomplete(),
-                "TernarySearchTreeAutocomplete", new TernarySearchTreeAutocomplete()
+                "TernarySearchTreeAutocomplete", new TernarySearchTreeAutocomplete(),
+                "SegmentTreeAutocomplete", new SegmentTreeAutocomplete(),
+                "UpdatableSegmentTreeAutocomplete", new UpdatableSegmentTreeAutocomplete(),
+                "CompactTernarySearchTreeAutocomplete", new CompactTernarySearchTreeAutocomplete(),
+                "DirectedAcyclicWordGraphAutocomplete", new DirectedAcyclicWordGraphAutocomplete()
         );
         // Add cities to each testing implementation.
         for (Autocomplete autocomplete : implementations.values()) {
@@ -75,7 +83,7 @@ class CitiesMultiTest {
             }
 
             // Ground truth for the given query.
-            List<CharSequence> referenceMatches = reference.allMatches(prefix);
+            List<CharSequence> referenceMatches = new ArrayList<>(reference.allMatches(prefix));
             // Sort the output so things can be compared.
             referenceMatches.sort(CharSequence::compare);
             printMatches(referenceMatches);
@@ -83,9 +91,9 @@ class CitiesMultiTest {
             // Check each implementation against the reference matches.
             for (String name : implementations.keySet()) {
                 Autocomplete autocomplete = implementations.get(name);
-                List<CharSequence> matches = autocomplete.allMatches(prefix);
+                List<CharSequence> matches = new ArrayList<>(autocomplete.allMatches(prefix));
                 matches.sort(CharSequence::compare);
-                if (matches.equals(referenceMatches)) {
+                if (matches.equals(referenceMatches) && autocomplete.countMatches(prefix) == matches.size()) {
                     System.out.println(name + " PASS!");
                 } else {
                     System.out.println(name + " FAIL!");
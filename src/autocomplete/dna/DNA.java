@@ -1,16 +1,12 @@
 package autocomplete.dna;
 
-//import autocomplete.Autocomplete;
-import autocomplete.*;
-
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.List;
 import java.util.Scanner;
 import java.util.zip.GZIPInputStream;
 
 /**
- * Search DNA by autocompleting across all suffixes.
+ * Search DNA by finding every suffix that begins with the query in a {@link TextIndex}.
  */
 class DNA {
     /**
@@ -23,9 +19,9 @@ class DNA {
     private static final String PATH = "../data/ecoli.txt.gz";
 
     public static void main(String[] args) throws IOException {
-        String dna = new Scanner(new GZIPInputStream(new FileInputStream(PATH))).next();
-        Autocomplete autocomplete = new BinarySearchAutocomplete();
-        autocomplete.addAll(new SuffixCollection(dna));
+        PackedDNA dna = new PackedDNA(new Scanner(new GZIPInputStream(new FileInputStream(PATH))).next());
+        TextIndex index = new FMIndex(dna);
+        SuffixCollection suffixes = new SuffixCollection(dna);
 
         Scanner stdin = new Scanner(System.in);
         System.out.print("Query: ");
@@ -34,10 +30,9 @@ class DNA {
             if (prefix.isEmpty()) {
                 System.exit(0);
             }
-            List<CharSequence> matches = autocomplete.allMatches(prefix);
-            System.out.println(matches.size() + " matches");
-            for (int i = 0; i < Math.min(matches.size(), MAX_MATCHES); i += 1) {
-                CharSequence match = matches.get(i);
+            System.out.println(index.count(prefix) + " matches");
+            for (int offset : index.locate(prefix, MAX_MATCHES)) {
+                CharSequence match = suffixes.suffix(offset);
                 if (match.length() >= 97) {
                     match = match.subSequence(0, 97) + "...";
                 }
@@ -0,0 +1,228 @@
+package autocomplete.dna;
+
+/**
+ * FM-index over a DNA text of the bases A, C, G, and T. The index stores the Burrows-Wheeler transform (BWT) of the
+ * text rather than the text or its suffix array, and answers queries by backward search, so it needs less than a byte
+ * per base:
+ * <ul>
+ *     <li>the BWT itself, packed at 2 bits per base;</li>
+ *     <li>occurrence counts of each base before every {@value #OCC_INTERVAL}th position, the rest counted from the
+ *     packed words with bit operations;</li>
+ *     <li>the suffix array entry for every {@value #SAMPLE_INTERVAL}th text position, found for any other row by
+ *     stepping backward through the text with the LF-mapping.</li>
+ * </ul>
+ * The transform is defined over the text followed by a sentinel that sorts before every base, so row 0 of the sorted
+ * rotations is the sentinel alone. Construction builds a temporary {@link SuffixArray}.
+ *
+ * @see SuffixArray
+ */
+class FMIndex implements TextIndex {
+    /**
+     * Number of BWT positions between stored occurrence counts. Must be a multiple of 32.
+     */
+    private static final int OCC_INTERVAL = 128;
+    /**
+     * Number of text positions between stored suffix array entries.
+     */
+    private static final int SAMPLE_INTERVAL = 32;
+    /**
+     * Bit mask selecting the low bit of every 2-bit symbol in a word.
+     */
+    private static final long LOW_BITS = 0x5555555555555555L;
+    /**
+     * The bases in sorted order, indexed by their 2-bit code.
+     */
+    private static final String BASES = "ACGT";
+    /**
+     * Number of rows, one more than the length of the text.
+     */
+    private final int rows;
+    /**
+     * BWT packed 32 symbols per word, low bits first. The row whose BWT symbol is the sentinel stores an A.
+     */
+    private final long[] bwt;
+    /**
+     * The row whose BWT symbol is the sentinel, which is the row of the whole text.
+     */
+    private final int sentinelRow;
+    /**
+     * {@code occ[4 * b + c]} is the number of symbols with code {@code c} in the BWT before row {@code b *
+     * OCC_INTERVAL}, counting the sentinel as an A.
+     */
+    private final int[] occ;
+    /**
+     * {@code starts[c]} is the first row of the rotations beginning with the base with code {@code c}.
+     */
+    private final int[] starts;
+    /**
+     * Marks the rows whose suffix array entry is sampled, 64 rows per word.
+     */
+    private final long[] sampled;
+    /**
+     * {@code sampledBefore[w]} is the number of sampled rows before row {@code 64 * w}.
+     */
+    private final int[] sampledBefore;
+    /**
+     * Suffix array entries of the sampled rows, in row order.
+     */
+    private final int[] samples;
+
+    /**
+     * Constructs an FM-index over the text.
+     *
+     * @param text the text to index.
+     * @throws IllegalArgumentException if the text contains a character other than A, C, G, or T.
+     */
+    FMIndex(CharSequence text) {
+        int n = text.length();
+        int[] counts = new int[BASES.length()];
+        for (int i = 0; i < n; i += 1) {
+            int code = code(text.charAt(i));
+            if (code < 0) {
+                throw new IllegalArgumentException("Not a base at " + i + ": " + text.charAt(i));
+            }
+            counts[code] += 1;
+        }
+        rows = n + 1;
+        starts = new int[BASES.length()];
+        starts[0] = 1;
+        for (int c = 1; c < BASES.length(); c += 1) {
+            starts[c] = starts[c - 1] + counts[c - 1];
+        }
+
+        SuffixArray suffixArray = new SuffixArray(text);
+        bwt = new long[(rows + 31) / 32];
+        occ = new int[BASES.length() * (rows / OCC_INTERVAL + 1)];
+        sampled = new long[(rows + 63) / 64];
+        sampledBefore = new int[sampled.length + 1];
+        samples = new int[n / SAMPLE_INTERVAL + 1];
+        int[] running = new int[BASES.length()];
+        int numSamples = 0;
+        int row0 = 0;
+        for (int r = 0; r < rows; r += 1) {
+            if (r % OCC_INTERVAL == 0) {
+                System.arraycopy(running, 0, occ, BASES.length() * (r / OCC_INTERVAL), BASES.length());
+            }
+            // Row 0 is the sentinel alone; the rest follow the suffix array of the text.
+            int offset = r == 0 ? n : suffixArray.suffix(r - 1);
+            int code = 0;
+            if (offset == 0) {
+                row0 = r;
+            } else {
+                code = code(text.charAt(offset - 1));
+            }
+            bwt[r / 32] |= (long) code << (2 * (r % 32));
+            running[code] += 1;
+            if (offset % SAMPLE_INTERVAL == 0) {
+                sampled[r / 64] |= 1L << (r % 64);
+                samples[numSamples] = offset;
+                numSamples += 1;
+            }
+        }
+        if (rows % OCC_INTERVAL == 0) {
+            // The counts before the row after the last, used for searches ending at the last row.
+            System.arraycopy(running, 0, occ, BASES.length() * (rows / OCC_INTERVAL), BASES.length());
+        }
+        sentinelRow = row0;
+        for (int w = 0; w < sampled.length; w += 1) {
+            sampledBefore[w + 1] = sampledBefore[w] + Long.bitCount(sampled[w]);
+        }
+    }
+
+    /**
+     * Returns the 2-bit code of the base, or -1 if the character is not a base.
+     */
+    private static int code(char c) {
+        return BASES.indexOf(c);
+    }
+
+    @Override
+    public int count(CharSequence pattern) {
+        long range = search(pattern);
+        return (int) (range >>> 32) - (int) range;
+    }
+
+    @Override
+    public int[] locate(CharSequence pattern, int limit) {
+        long range = search(pattern);
+        int lo = (int) range;
+        int hi = (int) Math.min(range >>> 32, (long) lo + Math.max(limit, 0));
+        int[] result = new int[hi - lo];
+        for (int r = lo; r < hi; r += 1) {
+            result[r - lo] = offset(r);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the range of rows whose rotations begin with the pattern, with the first row in the low 32 bits and the
+     * row after the last in the high 32 bits. Each step of the backward search narrows the range of rows beginning
+     * with a suffix of the pattern to those preceded by the next character to the left.
+     */
+    private long search(CharSequence pattern) {
+        if (pattern.length() == 0) {
+            // Every suffix of the text, leaving out row 0 for the sentinel alone.
+            return (long) rows << 32 | 1;
+        }
+        int lo = 0;
+        int hi = rows;
+        for (int i = pattern.length() - 1; i >= 0 && lo < hi; i -= 1) {
+            int code = code(pattern.charAt(i));
+            if (code < 0) {
+                return 0;
+            }
+            lo = starts[code] + occ(code, lo);
+            hi = starts[code] + occ(code, hi);
+        }
+        if (lo >= hi) {
+            return 0;
+        }
+        return (long) hi << 32 | lo;
+    }
+
+    /**
+     * Returns the text offset of the rotation in the given row by stepping backward to the nearest sampled row.
+     */
+    private int offset(int row) {
+        int steps = 0;
+        while ((sampled[row / 64] & 1L << (row % 64)) == 0) {
+            // The sentinel row is never stepped past, since its text offset 0 is always sampled.
+            int code = symbol(row);
+            row = starts[code] + occ(code, row);
+            steps += 1;
+        }
+        int w = row / 64;
+        int rank = sampledBefore[w] + Long.bitCount(sampled[w] & ((1L << (row % 64)) - 1));
+        return samples[rank] + steps;
+    }
+
+    /**
+     * Returns the code of the BWT symbol in the row.
+     */
+    private int symbol(int row) {
+        return (int) (bwt[row / 32] >>> (2 * (row % 32))) & 3;
+    }
+
+    /**
+     * Returns the number of BWT symbols with the code before the row, not counting the sentinel.
+     */
+    private int occ(int code, int row) {
+        int block = row / OCC_INTERVAL;
+        int result = occ[BASES.length() * block + code];
+        // Spread the code into every 2-bit symbol so matching symbols become 00 after the exclusive or.
+        long pattern = code * LOW_BITS;
+        int end = row / 32;
+        for (int w = block * (OCC_INTERVAL / 32); w <= end && w < bwt.length; w += 1) {
+            long x = bwt[w] ^ pattern;
+            long matches = ~(x | x >>> 1) & LOW_BITS;
+            if (w == end) {
+                matches &= (1L << (2 * (row % 32))) - 1;
+            }
+            result += Long.bitCount(matches);
+        }
+        if (code == 0 && sentinelRow < row) {
+            result -= 1;
+        }
+        return result;
+    }
+}
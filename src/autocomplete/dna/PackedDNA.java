@@ -0,0 +1,133 @@
+package autocomplete.dna;
+
+import java.nio.CharBuffer;
+
+/**
+ * Immutable sequence of the bases A, C, G, and T packed at 2 bits per base, a quarter of the memory of a
+ * {@link String} with one byte per character. Each word holds 32 bases with the first base in the most significant
+ * bits, and the codes follow the alphabetical order of the bases, so comparing words as unsigned integers compares
+ * 32 bases at once in lexicographic order.
+ *
+ * @see SuffixArray
+ */
+class PackedDNA implements CharSequence {
+    /**
+     * The bases in sorted order, indexed by their 2-bit code.
+     */
+    private static final String BASES = "ACGT";
+    private final long[] words;
+    private final int length;
+
+    /**
+     * Constructs a packed copy of the given bases.
+     *
+     * @param bases the sequence of bases.
+     * @throws IllegalArgumentException if the sequence contains a character other than A, C, G, or T.
+     */
+    PackedDNA(CharSequence bases) {
+        length = bases.length();
+        words = new long[(length + 31) / 32];
+        for (int i = 0; i < length; i += 1) {
+            long code = code(bases.charAt(i));
+            if (code < 0) {
+                throw new IllegalArgumentException("Not a base at " + i + ": " + bases.charAt(i));
+            }
+            words[i / 32] |= code << (62 - 2 * (i % 32));
+        }
+    }
+
+    /**
+     * Returns true if and only if every character of the sequence is one of A, C, G, or T.
+     *
+     * @param sequence the sequence to check.
+     * @return true if and only if the sequence can be packed.
+     */
+    static boolean isBases(CharSequence sequence) {
+        for (int i = 0; i < sequence.length(); i += 1) {
+            if (code(sequence.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the 2-bit code of the base, or -1 if the character is not a base.
+     */
+    private static int code(char c) {
+        switch (c) {
+            case 'A':
+                return 0;
+            case 'C':
+                return 1;
+            case 'G':
+                return 2;
+            case 'T':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return BASES.charAt((int) (words[index / 32] >>> (62 - 2 * (index % 32))) & 3);
+    }
+
+    @Override
+    public CharSequence subSequence(int begin, int end) {
+        if (begin < 0 || begin > end || end > length) {
+            throw new IndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + length);
+        }
+        return new PackedDNA(CharBuffer.wrap(this, begin, end));
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(length).append(this).toString();
+    }
+
+    /**
+     * Returns the 32 bases starting from the index packed into a word, padded with A past the end of the sequence.
+     */
+    private long word(int index) {
+        int w = index / 32;
+        int shift = 2 * (index % 32);
+        if (shift == 0) {
+            return words[w];
+        }
+        long next = w + 1 < words.length ? words[w + 1] : 0;
+        return words[w] << shift | next >>> (64 - shift);
+    }
+
+    /**
+     * Returns the length of the longest common prefix of the suffix of this sequence starting from one index and the
+     * suffix of the other sequence starting from another, comparing 32 bases at a time.
+     *
+     * @param i     the start of the suffix of this sequence.
+     * @param other the other sequence.
+     * @param j     the start of the suffix of the other sequence.
+     * @param from  the number of leading bases already known to match.
+     * @return the length of the longest common prefix.
+     */
+    int commonPrefix(int i, PackedDNA other, int j, int from) {
+        int max = Math.min(length - i, other.length - j);
+        int k = from;
+        while (k < max) {
+            long diff = word(i + k) ^ other.word(j + k);
+            if (diff != 0) {
+                return Math.min(k + Long.numberOfLeadingZeros(diff) / 2, max);
+            }
+            k += 32;
+        }
+        return max;
+    }
+}
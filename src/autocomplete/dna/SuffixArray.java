@@ -0,0 +1,248 @@
+package autocomplete.dna;
+
+import java.util.Arrays;
+
+/**
+ * Suffix array index over a text for counting and locating occurrences of a pattern. Rather than materializing each
+ * suffix, the index stores only the starting offsets of all suffixes in sorted order along with the longest common
+ * prefix (LCP) of each suffix and its predecessor, so it costs 8 bytes per character on top of the text.
+ * <p>
+ * The suffix array is constructed by prefix doubling: after the round for length <i>k</i>, suffixes are sorted by their
+ * first <i>k</i> characters, and the next round sorts by pairs of ranks with a stable counting sort. This takes
+ * O(<i>n</i> log <i>n</i>) time regardless of how repetitive the text is. The LCP array is then computed in linear
+ * time with Kasai's algorithm.
+ * <p>
+ * When the text is a {@link PackedDNA}, the LCP computation and searches compare 32 bases at a time.
+ *
+ * @see SuffixCollection
+ * @see FMIndex
+ * @see PackedDNA
+ */
+class SuffixArray implements TextIndex {
+    private final CharSequence text;
+    /**
+     * The text if it is packed, or null otherwise.
+     */
+    private final PackedDNA packed;
+    /**
+     * Offsets of the suffixes of the text in sorted order.
+     */
+    private final int[] suffixes;
+    /**
+     * {@code lcp[i]} is the length of the longest common prefix of suffixes {@code i - 1} and {@code i}, and 0 for
+     * {@code i = 0}.
+     */
+    private final int[] lcp;
+
+    /**
+     * Constructs a suffix array over all suffixes of the text.
+     *
+     * @param text the text to index.
+     */
+    SuffixArray(CharSequence text) {
+        this.text = text;
+        this.packed = text instanceof PackedDNA ? (PackedDNA) text : null;
+        int n = text.length();
+        int[] sa = new int[n];
+        int[] rank = new int[n];
+        int[] tmp = new int[n];
+        int[] count = new int[Math.max(n, Character.MAX_VALUE + 1)];
+
+        // Sort suffixes by their first character and assign dense ranks.
+        for (int i = 0; i < n; i += 1) {
+            count[text.charAt(i)] += 1;
+        }
+        for (int c = 1; c <= Character.MAX_VALUE; c += 1) {
+            count[c] += count[c - 1];
+        }
+        for (int i = n - 1; i >= 0; i -= 1) {
+            count[text.charAt(i)] -= 1;
+            sa[count[text.charAt(i)]] = i;
+        }
+        int classes = 0;
+        for (int j = 0; j < n; j += 1) {
+            if (j == 0 || text.charAt(sa[j]) != text.charAt(sa[j - 1])) {
+                classes += 1;
+            }
+            rank[sa[j]] = classes - 1;
+        }
+
+        for (int k = 1; classes < n; k *= 2) {
+            // Order suffixes by the rank of their second half: suffixes with an empty second half come first, then the
+            // rest in the order of the suffix k positions later.
+            int p = 0;
+            for (int i = n - k; i < n; i += 1) {
+                tmp[p] = i;
+                p += 1;
+            }
+            for (int j = 0; j < n; j += 1) {
+                if (sa[j] >= k) {
+                    tmp[p] = sa[j] - k;
+                    p += 1;
+                }
+            }
+            // Stable counting sort by the rank of the first half.
+            Arrays.fill(count, 0, classes, 0);
+            for (int i = 0; i < n; i += 1) {
+                count[rank[i]] += 1;
+            }
+            for (int r = 1; r < classes; r += 1) {
+                count[r] += count[r - 1];
+            }
+            for (int j = n - 1; j >= 0; j -= 1) {
+                count[rank[tmp[j]]] -= 1;
+                sa[count[rank[tmp[j]]]] = tmp[j];
+            }
+            // Suffixes share a rank only if both halves share a rank.
+            tmp[sa[0]] = 0;
+            classes = 1;
+            for (int j = 1; j < n; j += 1) {
+                int a = sa[j - 1];
+                int b = sa[j];
+                int secondA = a + k < n ? rank[a + k] : -1;
+                int secondB = b + k < n ? rank[b + k] : -1;
+                if (rank[a] != rank[b] || secondA != secondB) {
+                    classes += 1;
+                }
+                tmp[b] = classes - 1;
+            }
+            int[] swap = rank;
+            rank = tmp;
+            tmp = swap;
+        }
+        suffixes = sa;
+
+        // Kasai's algorithm: the LCP of the suffix after i with its predecessor is at least one less than that of i.
+        lcp = tmp;
+        int h = 0;
+        for (int i = 0; i < n; i += 1) {
+            if (rank[i] == 0) {
+                lcp[0] = 0;
+                h = 0;
+                continue;
+            }
+            h = commonPrefix(i, sa[rank[i] - 1], h);
+            lcp[rank[i]] = h;
+            if (h > 0) {
+                h -= 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of characters in the text.
+     *
+     * @return the number of characters in the text.
+     */
+    int length() {
+        return suffixes.length;
+    }
+
+    /**
+     * Returns the offset of the suffix with the given rank in sorted order.
+     *
+     * @param i the rank of the suffix.
+     * @return the offset of the suffix into the text.
+     */
+    int suffix(int i) {
+        return suffixes[i];
+    }
+
+    /**
+     * Returns the length of the longest common prefix of the suffixes with ranks {@code i - 1} and {@code i}.
+     *
+     * @param i the rank of the suffix, where rank 0 has an LCP of 0.
+     * @return the length of the longest common prefix.
+     */
+    int lcp(int i) {
+        return lcp[i];
+    }
+
+    @Override
+    public int count(CharSequence pattern) {
+        pattern = pack(pattern);
+        return bound(pattern, true) - bound(pattern, false);
+    }
+
+    @Override
+    public int[] locate(CharSequence pattern, int limit) {
+        pattern = pack(pattern);
+        int lo = bound(pattern, false);
+        int hi = (int) Math.min(bound(pattern, true), (long) lo + Math.max(limit, 0));
+        return Arrays.copyOfRange(suffixes, lo, hi);
+    }
+
+    /**
+     * Returns the rank of the first suffix that begins with or sorts after the pattern, or if upper is true, the first
+     * suffix that sorts after every suffix beginning with the pattern.
+     * <p>
+     * Every suffix between two others shares at least as many leading characters with the pattern as the lesser of
+     * the two, so each comparison skips the characters already matched at both ends of the search range.
+     */
+    private int bound(CharSequence pattern, boolean upper) {
+        int n = suffixes.length;
+        int m = pattern.length();
+        int lo = 0;
+        int hi = n;
+        int matchedLo = 0;
+        int matchedHi = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int offset = suffixes[mid];
+            int k = Math.min(matchedLo, matchedHi);
+            if (packed != null && pattern instanceof PackedDNA) {
+                k = packed.commonPrefix(offset, (PackedDNA) pattern, 0, k);
+            } else {
+                while (k < m && offset + k < n && text.charAt(offset + k) == pattern.charAt(k)) {
+                    k += 1;
+                }
+            }
+            int cmp;
+            if (k == m) {
+                cmp = 0;
+            } else if (offset + k == n) {
+                cmp = -1;
+            } else {
+                cmp = text.charAt(offset + k) - pattern.charAt(k);
+            }
+            if (cmp < 0 || (upper && cmp == 0)) {
+                lo = mid + 1;
+                matchedLo = k;
+            } else {
+                hi = mid;
+                matchedHi = k;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the pattern packed for comparison against a packed text if possible, or else the pattern itself.
+     */
+    private CharSequence pack(CharSequence pattern) {
+        if (packed != null && !(pattern instanceof PackedDNA) && PackedDNA.isBases(pattern)) {
+            return new PackedDNA(pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns the length of the longest common prefix of the suffixes starting from the two offsets.
+     *
+     * @param i    the offset of one suffix.
+     * @param j    the offset of the other suffix.
+     * @param from the number of leading characters already known to match.
+     * @return the length of the longest common prefix.
+     */
+    private int commonPrefix(int i, int j, int from) {
+        if (packed != null) {
+            return packed.commonPrefix(i, packed, j, from);
+        }
+        int n = text.length();
+        int h = from;
+        while (i + h < n && j + h < n && text.charAt(i + h) == text.charAt(j + h)) {
+            h += 1;
+        }
+        return h;
+    }
+}
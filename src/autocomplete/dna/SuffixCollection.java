@@ -42,6 +42,16 @@ class SuffixCollection extends AbstractCollection<CharSequence> {
         return data.length() - 1;
     }
 
+    /**
+     * Returns a view of the suffix of the data starting from the given offset without copying it.
+     *
+     * @param offset index into data representing the start (inclusive).
+     * @return the suffix.
+     */
+    CharSequence suffix(int offset) {
+        return new Suffix(offset);
+    }
+
     /**
      * A suffix of the data starting from the given begin index.
      */
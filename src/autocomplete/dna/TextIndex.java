@@ -0,0 +1,26 @@
+package autocomplete.dna;
+
+/**
+ * Full-text index for counting and locating the occurrences of a pattern anywhere in a text.
+ *
+ * @see SuffixArray
+ * @see FMIndex
+ */
+interface TextIndex {
+    /**
+     * Returns the number of occurrences of the pattern in the text.
+     *
+     * @param pattern the pattern to search for.
+     * @return the number of occurrences.
+     */
+    int count(CharSequence pattern);
+
+    /**
+     * Returns the offsets of up to the given number of occurrences of the pattern in the text.
+     *
+     * @param pattern the pattern to search for.
+     * @param limit   the maximum number of offsets to return.
+     * @return the offsets of the occurrences.
+     */
+    int[] locate(CharSequence pattern, int limit);
+}
@@ -0,0 +1,150 @@
+package autocomplete.dna;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compare different {@link TextIndex} implementations against a naive search of random DNA texts to check that they
+ * count and locate the same occurrences.
+ *
+ * @see TextIndex
+ * @see SuffixArray
+ * @see FMIndex
+ */
+class TextIndexMultiTest {
+    /**
+     * Lengths of the random texts, including multiples of the 32 bases in a packed word and of the 128 rows between
+     * stored occurrence counts in an FM-index, and their neighbors. An FM-index has one more row than the text has
+     * bases.
+     */
+    private static final int[] LENGTHS = {1, 2, 31, 32, 33, 63, 64, 127, 128, 129, 255, 256, 1000, 4095, 4096};
+    /**
+     * Number of patterns searched in each text.
+     */
+    private static final int NUM_PATTERNS = 200;
+    /**
+     * Maximum length of a pattern, longer than a packed word.
+     */
+    private static final int MAX_PATTERN_LENGTH = 40;
+    /**
+     * Number of offsets requested when checking that locate respects its limit.
+     */
+    private static final int LIMIT = 3;
+
+    public static void main(String[] args) {
+        // Testing implementations.
+        Map<String, Function<String, TextIndex>> implementations = new LinkedHashMap<>();
+        implementations.put("SuffixArray", SuffixArray::new);
+        implementations.put("SuffixArray [packed]", text -> new SuffixArray(new PackedDNA(text)));
+        implementations.put("FMIndex", FMIndex::new);
+        implementations.put("FMIndex [packed]", text -> new FMIndex(new PackedDNA(text)));
+
+        Random random = new Random(0);
+        List<String> texts = new ArrayList<>();
+        for (int length : LENGTHS) {
+            texts.add(randomBases(random, length));
+        }
+        // Repetitive texts have long common prefixes between suffixes.
+        texts.add("A".repeat(128));
+        texts.add("AC".repeat(256));
+        texts.add("ACGTACGTTGCA".repeat(100));
+
+        for (String name : implementations.keySet()) {
+            boolean countPassed = true;
+            boolean locatePassed = true;
+            for (String text : texts) {
+                TextIndex index = implementations.get(name).apply(text);
+                for (String pattern : patterns(random, text)) {
+                    List<Integer> expected = naive(text, pattern);
+                    if (index.count(pattern) != expected.size()) {
+                        countPassed = false;
+                        printFail(name + " count()", text, pattern, expected.size(), index.count(pattern));
+                    }
+                    int[] all = index.locate(pattern, Integer.MAX_VALUE);
+                    int[] some = index.locate(pattern, LIMIT);
+                    if (!sorted(all).equals(expected) || !isSubset(some, expected, LIMIT)) {
+                        locatePassed = false;
+                        printFail(name + " locate()", text, pattern, expected, sorted(all));
+                    }
+                }
+            }
+            System.out.println(name + " count() " + (countPassed ? "PASS!" : "FAIL!"));
+            System.out.println(name + " locate() " + (locatePassed ? "PASS!" : "FAIL!"));
+        }
+    }
+
+    /**
+     * Returns a random text of the given length over the bases A, C, G, and T.
+     */
+    private static String randomBases(Random random, int length) {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1) {
+            result.append("ACGT".charAt(random.nextInt(4)));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns patterns to search for in the text: substrings of the text, which always occur, random bases, which
+     * mostly do not, and edge cases.
+     */
+    private static List<String> patterns(Random random, String text) {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < NUM_PATTERNS / 2; i += 1) {
+            int start = random.nextInt(text.length());
+            int end = Math.min(text.length(), start + 1 + random.nextInt(MAX_PATTERN_LENGTH));
+            patterns.add(text.substring(start, end));
+            patterns.add(randomBases(random, 1 + random.nextInt(MAX_PATTERN_LENGTH)));
+        }
+        patterns.add(text);
+        patterns.add(text + "A");
+        patterns.add("N");
+        patterns.add(text.charAt(0) + "N");
+        return patterns;
+    }
+
+    /**
+     * Returns the offsets of every occurrence of the pattern in the text in increasing order.
+     */
+    private static List<Integer> naive(String text, String pattern) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i + pattern.length() <= text.length(); i += 1) {
+            if (text.startsWith(pattern, i)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offsets in increasing order.
+     */
+    private static List<Integer> sorted(int[] offsets) {
+        List<Integer> result = new ArrayList<>(offsets.length);
+        for (int offset : offsets) {
+            result.add(offset);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns true if the offsets are as many distinct expected offsets as the limit allows.
+     */
+    private static boolean isSubset(int[] offsets, List<Integer> expected, int limit) {
+        return offsets.length == Math.min(limit, expected.size())
+                && new HashSet<>(sorted(offsets)).size() == offsets.length
+                && expected.containsAll(sorted(offsets));
+    }
+
+    /**
+     * Prints information about a failed test case.
+     */
+    private static void printFail(String name, String text, String pattern, Object expected, Object actual) {
+        if (text.length() > 40) {
+            text = text.substring(0, 37) + "...";
+        }
+        System.out.println("\t" + name + " on " + text + " for " + pattern + ": expected " + expected + " but got "
+                + actual);
+    }
+}
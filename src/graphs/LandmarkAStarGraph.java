@@ -0,0 +1,184 @@
+package graphs;
+
+import graphs.shortestpaths.AStarSolver;
+import minpq.DaryHeapMinPQ;
+import minpq.ExtrinsicMinPQ;
+
+import java.util.*;
+
+/**
+ * {@link AStarGraph} decorator that strengthens the heuristic with landmarks and the triangle inequality (ALT). For
+ * each landmark <i>L</i>, the shortest-path distances from <i>L</i> and to <i>L</i> bound the distance from any
+ * <i>v</i> to any <i>t</i> below by both {@code d(L, t) - d(L, v)} and {@code d(v, L) - d(t, L)}. The
+ * {@link #estimatedDistance} is the largest of these bounds and the decorated graph's own estimate, which remains
+ * consistent if the decorated graph's estimate is consistent.
+ * <p>
+ * Preprocessing discovers the vertices reachable from a seed vertex, chooses landmarks spread across them by repeatedly
+ * taking the vertex farthest from the landmarks chosen so far, and stores two Dijkstra distance arrays per landmark.
+ * Vertices outside the seed's component fall back to the decorated graph's estimate.
+ *
+ * @param <V> the type of vertices.
+ * @see AStarGraph
+ * @see AStarSolver
+ */
+public class LandmarkAStarGraph<V> implements AStarGraph<V> {
+    private final AStarGraph<V> graph;
+    /**
+     * {@link Map} of each discovered vertex to its index into the distance arrays.
+     */
+    private final Map<V, Integer> index;
+    /**
+     * Landmark vertices, as indices.
+     */
+    private final int[] landmarks;
+    /**
+     * {@code from[i][v]} is the shortest-path distance from landmark {@code i} to vertex {@code v}.
+     */
+    private final double[][] from;
+    /**
+     * {@code to[i][v]} is the shortest-path distance from vertex {@code v} to landmark {@code i}.
+     */
+    private final double[][] to;
+
+    /**
+     * Constructs a decorator by preprocessing landmark distances over the vertices reachable from the seed.
+     *
+     * @param graph        the decorated graph.
+     * @param seed         a vertex in the component of interest.
+     * @param numLandmarks the number of landmarks to choose.
+     */
+    public LandmarkAStarGraph(AStarGraph<V> graph, V seed, int numLandmarks) {
+        this.graph = graph;
+        this.index = new HashMap<>();
+
+        // Discover the reachable vertices and number them, recording both edge directions in CSR form.
+        List<V> vertices = new ArrayList<>();
+        index.put(seed, 0);
+        vertices.add(seed);
+        List<List<Edge<V>>> edges = new ArrayList<>();
+        for (int i = 0; i < vertices.size(); i += 1) {
+            List<Edge<V>> neighbors = graph.neighbors(vertices.get(i));
+            edges.add(neighbors);
+            for (Edge<V> e : neighbors) {
+                if (!index.containsKey(e.to)) {
+                    index.put(e.to, vertices.size());
+                    vertices.add(e.to);
+                }
+            }
+        }
+        int n = vertices.size();
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        for (int v = 0; v < n; v += 1) {
+            outOffsets[v + 1] = outOffsets[v] + edges.get(v).size();
+            for (Edge<V> e : edges.get(v)) {
+                inOffsets[index.get(e.to) + 1] += 1;
+            }
+        }
+        for (int v = 0; v < n; v += 1) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] outTargets = new int[outOffsets[n]];
+        double[] outWeights = new double[outOffsets[n]];
+        int[] inTargets = new int[inOffsets[n]];
+        double[] inWeights = new double[inOffsets[n]];
+        int[] inNext = Arrays.copyOf(inOffsets, n);
+        for (int v = 0; v < n; v += 1) {
+            int i = outOffsets[v];
+            for (Edge<V> e : edges.get(v)) {
+                int w = index.get(e.to);
+                outTargets[i] = w;
+                outWeights[i] = e.weight;
+                i += 1;
+                inTargets[inNext[w]] = v;
+                inWeights[inNext[w]] = e.weight;
+                inNext[w] += 1;
+            }
+        }
+
+        // Farthest-point landmark selection, starting from the vertex farthest from the seed.
+        int k = Math.min(numLandmarks, n);
+        landmarks = new int[k];
+        from = new double[k][];
+        to = new double[k][];
+        double[] nearest = dijkstra(0, outOffsets, outTargets, outWeights);
+        for (int i = 0; i < k; i += 1) {
+            int farthest = 0;
+            for (int v = 0; v < n; v += 1) {
+                if (nearest[v] != Double.POSITIVE_INFINITY
+                        && (nearest[farthest] == Double.POSITIVE_INFINITY || nearest[v] > nearest[farthest])) {
+                    farthest = v;
+                }
+            }
+            landmarks[i] = farthest;
+            from[i] = dijkstra(farthest, outOffsets, outTargets, outWeights);
+            to[i] = dijkstra(farthest, inOffsets, inTargets, inWeights);
+            for (int v = 0; v < n; v += 1) {
+                nearest[v] = i == 0 ? from[i][v] : Math.min(nearest[v], from[i][v]);
+            }
+        }
+    }
+
+    /**
+     * Returns the shortest-path distances from the source to every vertex over the given CSR edges.
+     */
+    private static double[] dijkstra(int source, int[] offsets, int[] targets, double[] weights) {
+        double[] distTo = new double[offsets.length - 1];
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        distTo[source] = 0.0;
+        ExtrinsicMinPQ<Integer> pq = new DaryHeapMinPQ<>();
+        pq.add(source, 0.0);
+        while (!pq.isEmpty()) {
+            int from = pq.removeMin();
+            for (int e = offsets[from]; e < offsets[from + 1]; e += 1) {
+                int to = targets[e];
+                double newDist = distTo[from] + weights[e];
+                if (newDist < distTo[to]) {
+                    distTo[to] = newDist;
+                    if (pq.contains(to)) {
+                        pq.changePriority(to, newDist);
+                    } else {
+                        pq.add(to, newDist);
+                    }
+                }
+            }
+        }
+        return distTo;
+    }
+
+    /**
+     * Returns the number of landmarks, which is fewer than requested only if the seed's component is smaller.
+     *
+     * @return the number of landmarks.
+     */
+    public int numLandmarks() {
+        return landmarks.length;
+    }
+
+    @Override
+    public List<Edge<V>> neighbors(V vertex) {
+        return graph.neighbors(vertex);
+    }
+
+    @Override
+    public double estimatedDistance(V start, V end) {
+        double estimate = graph.estimatedDistance(start, end);
+        Integer s = index.get(start);
+        Integer t = index.get(end);
+        if (s == null || t == null) {
+            return estimate;
+        }
+        for (int i = 0; i < landmarks.length; i += 1) {
+            double[] fromL = from[i];
+            double[] toL = to[i];
+            // Skip bounds involving unreachable vertices, where infinite distances would produce NaN.
+            if (fromL[s] != Double.POSITIVE_INFINITY && fromL[t] != Double.POSITIVE_INFINITY) {
+                estimate = Math.max(estimate, fromL[t] - fromL[s]);
+            }
+            if (toL[s] != Double.POSITIVE_INFINITY && toL[t] != Double.POSITIVE_INFINITY) {
+                estimate = Math.max(estimate, toL[s] - toL[t]);
+            }
+        }
+        return estimate;
+    }
+}
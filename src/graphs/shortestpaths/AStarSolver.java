@@ -6,9 +6,13 @@ import minpq.DoubleMapMinPQ;
 import minpq.ExtrinsicMinPQ;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
- * A* search implementation for single-pair shortest paths in an {@link AStarGraph}.
+ * A* search implementation for single-pair shortest paths in an {@link AStarGraph}. Search stops as soon as the goal is
+ * removed from the priority queue, and each vertex is expanded at most once. Both are correct only when the graph's
+ * {@link AStarGraph#estimatedDistance} is <i>consistent</i> (never decreases by more than an edge weight across that
+ * edge), as a straight-line distance is on a graph weighted by physical distance.
  *
  * @param <V> the type of vertices.
  * @see AStarGraph
@@ -18,6 +22,8 @@ public class AStarSolver<V> {
     private final Map<V, Double> distTo;
     private final V start;
     private final V goal;
+    private int settled;
+    private int relaxed;
 
     /**
      * Constructs a new instance by executing A* search on the graph from the start to the goal.
@@ -27,18 +33,41 @@ public class AStarSolver<V> {
      * @param goal  the goal vertex.
      */
     public AStarSolver(AStarGraph<V> graph, V start, V goal) {
+        this(graph, start, goal, DoubleMapMinPQ::new);
+    }
+
+    /**
+     * Constructs a new instance by executing A* search on the graph from the start to the goal, using a priority queue
+     * created by the given factory.
+     *
+     * @param graph     the input graph.
+     * @param start     the start vertex.
+     * @param goal      the goal vertex.
+     * @param pqFactory the factory for an empty {@link ExtrinsicMinPQ}.
+     */
+    public AStarSolver(AStarGraph<V> graph, V start, V goal, Supplier<ExtrinsicMinPQ<V>> pqFactory) {
         this.edgeTo = new HashMap<>();
         this.distTo = new HashMap<>();
         this.start = start;
         this.goal = goal;
-        ExtrinsicMinPQ<V> pq = new DoubleMapMinPQ<>();
+        ExtrinsicMinPQ<V> pq = pqFactory.get();
         pq.add(start, 0.0);
         edgeTo.put(start, null);
         distTo.put(start, 0.0);
+        Set<V> closed = new HashSet<>();
         while (!pq.isEmpty()) {
             V from = pq.removeMin();
+            closed.add(from);
+            settled += 1;
+            if (Objects.equals(from, goal)) {
+                break;
+            }
             for (Edge<V> e : graph.neighbors(from)) {
                 V to = e.to;
+                relaxed += 1;
+                if (closed.contains(to)) {
+                    continue;
+                }
                 double oldDist = distTo.getOrDefault(to, Double.POSITIVE_INFINITY);
                 double newDist = distTo.get(from) + e.weight;
                 if (newDist < oldDist) {
@@ -55,6 +84,24 @@ public class AStarSolver<V> {
         }
     }
 
+    /**
+     * Returns the number of vertices removed from the priority queue and expanded, including the goal.
+     *
+     * @return the number of vertices settled by the search.
+     */
+    public int numSettled() {
+        return settled;
+    }
+
+    /**
+     * Returns the number of outgoing edges examined from settled vertices.
+     *
+     * @return the number of edges relaxed by the search.
+     */
+    public int numRelaxed() {
+        return relaxed;
+    }
+
     /**
      * Returns the single-pair shortest path from the stored start to the stored goal.
      *
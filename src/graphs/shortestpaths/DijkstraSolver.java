@@ -6,6 +6,7 @@ import minpq.DoubleMapMinPQ;
 import minpq.ExtrinsicMinPQ;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Dijkstra's algorithm implementation of the {@link ShortestPathSolver} interface.
@@ -24,9 +25,22 @@ public class DijkstraSolver<V> implements ShortestPathSolver<V> {
      * @param start the start vertex.
      */
     public DijkstraSolver(Graph<V> graph, V start) {
+        this(graph, start, DoubleMapMinPQ::new);
+    }
+
+    /**
+     * Constructs a new instance by executing Dijkstra's algorithm on the graph from the start, using a priority queue
+     * created by the given factory. To pass this constructor where a {@link ShortestPathSolver.Constructor} is
+     * expected, bind the factory in a lambda such as {@code (g, s) -> new DijkstraSolver<>(g, s, DaryHeapMinPQ::new)}.
+     *
+     * @param graph     the input graph.
+     * @param start     the start vertex.
+     * @param pqFactory the factory for an empty {@link ExtrinsicMinPQ}.
+     */
+    public DijkstraSolver(Graph<V> graph, V start, Supplier<ExtrinsicMinPQ<V>> pqFactory) {
         this.edgeTo = new HashMap<>();
         this.distTo = new HashMap<>();
-        ExtrinsicMinPQ<V> pq = new DoubleMapMinPQ<>();
+        ExtrinsicMinPQ<V> pq = pqFactory.get();
         pq.add(start, 0.0);
         edgeTo.put(start, null);
         distTo.put(start, 0.0);
@@ -32,7 +32,9 @@ public interface ShortestPathSolver<V> {
     interface Constructor<V> {
         /**
          * Functional interface for running the constructor. Given an implementation of {@link ShortestPathSolver},
-         * refer to its constructor as (for example) {@code ShortestPathSolver::new}.
+         * refer to its constructor as (for example) {@code ShortestPathSolver::new}. Implementations that accept a
+         * priority queue factory can bind it in a lambda, for example
+         * {@code (graph, start) -> new DijkstraSolver<>(graph, start, DaryHeapMinPQ::new)}.
          *
          * @param graph the input graph.
          * @param start the start vertex.
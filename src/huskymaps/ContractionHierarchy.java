@@ -0,0 +1,632 @@
+package huskymaps;
+
+import minpq.DaryHeapMinPQ;
+import minpq.ExtrinsicMinPQ;
+import org.locationtech.spatial4j.context.SpatialContext;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Contraction hierarchy over a symmetric {@link StreetGraph} for fast point-to-point shortest paths. Preprocessing
+ * contracts vertices one at a time in order of increasing importance, adding a shortcut edge between two neighbors of
+ * the contracted vertex whenever the path through it is the only shortest path between them. Queries then run a
+ * bidirectional Dijkstra search that only follows edges toward more important vertices, which settles a few hundred
+ * vertices even on metro-scale graphs, and unpack the shortcuts on the resulting path.
+ * <p>
+ * Preprocessing is an offline step: run {@link #main(String[])} to write the hierarchy next to the OSM file, where
+ * {@link MapGraph} will load it on start.
+ *
+ * @see StreetGraph
+ * @see MapGraph
+ */
+public class ContractionHierarchy {
+    /**
+     * Magic number identifying a contraction hierarchy file.
+     */
+    private static final int MAGIC = 0x48534B43;
+    /**
+     * Format version. Increment whenever the layout written by {@link #write(Path)} changes.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Maximum number of vertices settled by each witness search during preprocessing. Larger values find more
+     * witnesses, adding fewer unnecessary shortcuts at the cost of slower preprocessing.
+     */
+    private static final int WITNESS_SETTLED_LIMIT = 500;
+
+    /**
+     * Fingerprint of the street graph this hierarchy was built from.
+     */
+    private final long fingerprint;
+    /**
+     * Contraction order of each vertex: higher ranks were contracted later and are more important.
+     */
+    private final int[] rank;
+    /**
+     * Upward edges in CSR form: the edges of vertex {@code v} to higher-ranked vertices are at indices
+     * {@code upOffsets[v]} (inclusive) to {@code upOffsets[v + 1]} (exclusive). Each edge is either an original street
+     * ({@code upMiddle[e] == -1}) or a shortcut through the lower-ranked vertex {@code upMiddle[e]}.
+     */
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddle;
+
+    private ContractionHierarchy(long fingerprint, int[] rank, int[] upOffsets, int[] upTargets, double[] upWeights,
+                                 int[] upMiddle) {
+        this.fingerprint = fingerprint;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddle = upMiddle;
+    }
+
+    /**
+     * Returns the path of the contraction hierarchy file for the given OSM file.
+     *
+     * @param osmPath the path to a gzipped OSM (XML) file.
+     * @return the path of the contraction hierarchy file for the given OSM file.
+     */
+    static Path pathFor(String osmPath) {
+        return Path.of(osmPath + ".ch");
+    }
+
+    /**
+     * Preprocesses the street graph into a contraction hierarchy. The graph must be symmetric.
+     *
+     * @param graph the input street graph.
+     * @return the contraction hierarchy for the graph.
+     */
+    public static ContractionHierarchy build(StreetGraph graph) {
+        return new Builder(graph).build();
+    }
+
+    /**
+     * Returns the length of the shortest path between the two vertices, or infinity if the goal is unreachable.
+     *
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     * @return the length of the shortest path between the two vertices.
+     */
+    public double distance(int start, int goal) {
+        return new Query(start, goal).best;
+    }
+
+    /**
+     * Returns the shortest path between the two vertices with all shortcuts unpacked into original street edges. If
+     * the goal is unreachable, returns a list containing only the goal, as
+     * {@link graphs.shortestpaths.AStarSolver#solution()} does.
+     *
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     * @return a list of vertices representing the shortest path.
+     */
+    public List<Integer> solution(int start, int goal) {
+        Query query = new Query(start, goal);
+        List<Integer> path = new ArrayList<>();
+        if (query.meet < 0) {
+            path.add(goal);
+            return path;
+        }
+        // Walk the forward search tree from the meeting vertex back to the start...
+        List<Integer> upward = new ArrayList<>();
+        for (int v = query.meet; v != start; v = query.forwardParent.get(v)) {
+            upward.add(v);
+        }
+        upward.add(start);
+        Collections.reverse(upward);
+        // ...then the backward search tree from the meeting vertex to the goal.
+        for (int v = query.meet; v != goal; ) {
+            v = query.backwardParent.get(v);
+            upward.add(v);
+        }
+        path.add(start);
+        for (int i = 1; i < upward.size(); i += 1) {
+            unpack(upward.get(i - 1), upward.get(i), path);
+        }
+        return path;
+    }
+
+    /**
+     * Appends the original vertices on the hierarchy edge from {@code a} to {@code b}, excluding {@code a} and
+     * including {@code b}, to the path.
+     */
+    private void unpack(int a, int b, List<Integer> path) {
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{a, b});
+        while (!stack.isEmpty()) {
+            int[] edge = stack.pop();
+            int middle = upMiddle[edgeBetween(edge[0], edge[1])];
+            if (middle < 0) {
+                path.add(edge[1]);
+            } else {
+                // Push the second half first so that the first half is unpacked first.
+                stack.push(new int[]{middle, edge[1]});
+                stack.push(new int[]{edge[0], middle});
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the upward edge between the two vertices, stored with whichever has the lower rank.
+     */
+    private int edgeBetween(int u, int v) {
+        int lower = rank[u] < rank[v] ? u : v;
+        int higher = lower == u ? v : u;
+        for (int e = upOffsets[lower]; e < upOffsets[lower + 1]; e += 1) {
+            if (upTargets[e] == higher) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("No hierarchy edge between " + u + " and " + v);
+    }
+
+    /**
+     * Bidirectional upward Dijkstra search between two vertices.
+     */
+    private class Query {
+        private final Map<Integer, Double> forwardDist = new HashMap<>();
+        private final Map<Integer, Integer> forwardParent = new HashMap<>();
+        private final Map<Integer, Double> backwardDist = new HashMap<>();
+        private final Map<Integer, Integer> backwardParent = new HashMap<>();
+        private double best = Double.POSITIVE_INFINITY;
+        private int meet = -1;
+
+        Query(int start, int goal) {
+            ExtrinsicMinPQ<Integer> forward = new DaryHeapMinPQ<>();
+            ExtrinsicMinPQ<Integer> backward = new DaryHeapMinPQ<>();
+            forward.add(start, 0.0);
+            forwardDist.put(start, 0.0);
+            backward.add(goal, 0.0);
+            backwardDist.put(goal, 0.0);
+            // Unlike plain bidirectional Dijkstra, the searches cannot stop at the first meeting: the shortest path
+            // goes up from both ends to its highest-ranked vertex, so each side runs until its queue minimum alone
+            // cannot improve the best path.
+            boolean forwardTurn = true;
+            while (!forward.isEmpty() || !backward.isEmpty()) {
+                if (!forward.isEmpty() && forwardDist.get(forward.peekMin()) >= best) {
+                    forward = new DaryHeapMinPQ<>();
+                }
+                if (!backward.isEmpty() && backwardDist.get(backward.peekMin()) >= best) {
+                    backward = new DaryHeapMinPQ<>();
+                }
+                if (forwardTurn && !forward.isEmpty()) {
+                    settle(forward.removeMin(), forward, forwardDist, forwardParent, backwardDist);
+                } else if (!backward.isEmpty()) {
+                    settle(backward.removeMin(), backward, backwardDist, backwardParent, forwardDist);
+                }
+                forwardTurn = !forwardTurn;
+            }
+        }
+
+        private void settle(int from, ExtrinsicMinPQ<Integer> pq, Map<Integer, Double> dist,
+                            Map<Integer, Integer> parent, Map<Integer, Double> other) {
+            double fromDist = dist.get(from);
+            Double otherDist = other.get(from);
+            if (otherDist != null && fromDist + otherDist < best) {
+                best = fromDist + otherDist;
+                meet = from;
+            }
+            for (int e = upOffsets[from]; e < upOffsets[from + 1]; e += 1) {
+                int to = upTargets[e];
+                double newDist = fromDist + upWeights[e];
+                if (newDist < dist.getOrDefault(to, Double.POSITIVE_INFINITY)) {
+                    dist.put(to, newDist);
+                    parent.put(to, from);
+                    if (pq.contains(to)) {
+                        pq.changePriority(to, newDist);
+                    } else {
+                        pq.add(to, newDist);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Contracts the vertices of a street graph in order of increasing edge difference.
+     */
+    private static class Builder {
+        private final StreetGraph graph;
+        private final int n;
+        /**
+         * Remaining (uncontracted) neighbors of each vertex, with the weight and middle vertex of each edge.
+         */
+        private final int[][] adjTo;
+        private final double[][] adjWeight;
+        private final int[][] adjMiddle;
+        private final int[] adjSize;
+        /**
+         * Number of contracted neighbors of each vertex, which spreads contraction evenly across the graph.
+         */
+        private final int[] contractedNeighbors;
+        private final boolean[] contracted;
+        /**
+         * Witness search state, reset after each search by visiting only the touched vertices.
+         */
+        private final double[] witnessDist;
+        private final List<Integer> touched;
+
+        Builder(StreetGraph graph) {
+            this.graph = graph;
+            this.n = graph.size();
+            this.adjTo = new int[n][];
+            this.adjWeight = new double[n][];
+            this.adjMiddle = new int[n][];
+            this.adjSize = new int[n];
+            this.contractedNeighbors = new int[n];
+            this.contracted = new boolean[n];
+            this.witnessDist = new double[n];
+            this.touched = new ArrayList<>();
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            for (int v = 0; v < n; v += 1) {
+                int degree = graph.endEdge(v) - graph.firstEdge(v);
+                adjTo[v] = new int[Math.max(degree, 2)];
+                adjWeight[v] = new double[adjTo[v].length];
+                adjMiddle[v] = new int[adjTo[v].length];
+            }
+            for (int v = 0; v < n; v += 1) {
+                for (int e = graph.firstEdge(v); e < graph.endEdge(v); e += 1) {
+                    if (graph.target(e) != v) {
+                        connect(v, graph.target(e), graph.weight(e), -1);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy build() {
+            double[] priority = new double[n];
+            ExtrinsicMinPQ<Integer> order = new DaryHeapMinPQ<>();
+            for (int v = 0; v < n; v += 1) {
+                priority[v] = priority(v);
+                order.add(v, priority[v]);
+            }
+            int[] rank = new int[n];
+            int[] upOffsets = new int[n + 1];
+            List<int[]> upTargets = new ArrayList<>(n);
+            List<double[]> upWeights = new ArrayList<>(n);
+            List<int[]> upMiddle = new ArrayList<>(n);
+            for (int v = 0; v < n; v += 1) {
+                upTargets.add(null);
+                upWeights.add(null);
+                upMiddle.add(null);
+            }
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.removeMin();
+                // Lazy update: priorities go stale as neighbors are contracted, so recompute before committing.
+                double updated = priority(v);
+                if (!order.isEmpty() && updated > priority[order.peekMin()]) {
+                    priority[v] = updated;
+                    order.add(v, updated);
+                    continue;
+                }
+                rank[v] = next;
+                next += 1;
+                // All remaining neighbors will be contracted later, so these are exactly v's upward edges.
+                upTargets.set(v, Arrays.copyOf(adjTo[v], adjSize[v]));
+                upWeights.set(v, Arrays.copyOf(adjWeight[v], adjSize[v]));
+                upMiddle.set(v, Arrays.copyOf(adjMiddle[v], adjSize[v]));
+                contract(v);
+            }
+            for (int v = 0; v < n; v += 1) {
+                upOffsets[v + 1] = upOffsets[v] + upTargets.get(v).length;
+            }
+            int m = upOffsets[n];
+            int[] targets = new int[m];
+            double[] weights = new double[m];
+            int[] middle = new int[m];
+            for (int v = 0; v < n; v += 1) {
+                System.arraycopy(upTargets.get(v), 0, targets, upOffsets[v], upTargets.get(v).length);
+                System.arraycopy(upWeights.get(v), 0, weights, upOffsets[v], upWeights.get(v).length);
+                System.arraycopy(upMiddle.get(v), 0, middle, upOffsets[v], upMiddle.get(v).length);
+            }
+            return new ContractionHierarchy(fingerprint(graph), rank, upOffsets, targets, weights, middle);
+        }
+
+        /**
+         * Returns the contraction priority of the vertex: shortcuts added minus edges removed, plus the number of
+         * already-contracted neighbors.
+         */
+        private double priority(int v) {
+            return shortcuts(v, false) - adjSize[v] + contractedNeighbors[v];
+        }
+
+        /**
+         * Removes the vertex from the remaining graph, adding the necessary shortcuts between its neighbors.
+         */
+        private void contract(int v) {
+            shortcuts(v, true);
+            contracted[v] = true;
+            for (int i = 0; i < adjSize[v]; i += 1) {
+                int u = adjTo[v][i];
+                disconnect(u, v);
+                contractedNeighbors[u] += 1;
+            }
+        }
+
+        /**
+         * Returns the number of shortcuts needed to contract the vertex, adding them if {@code apply} is true.
+         */
+        private int shortcuts(int v, boolean apply) {
+            int count = 0;
+            int degree = adjSize[v];
+            double maxOut = 0;
+            for (int i = 0; i < degree; i += 1) {
+                maxOut = Math.max(maxOut, adjWeight[v][i]);
+            }
+            // Copy the neighbors since applying shortcuts modifies the adjacency arrays of v's neighbors (not v).
+            int[] neighbors = Arrays.copyOf(adjTo[v], degree);
+            double[] weights = Arrays.copyOf(adjWeight[v], degree);
+            for (int i = 0; i < degree - 1; i += 1) {
+                int u = neighbors[i];
+                witnessSearch(u, v, weights[i] + maxOut);
+                for (int j = i + 1; j < degree; j += 1) {
+                    int w = neighbors[j];
+                    double via = weights[i] + weights[j];
+                    if (witnessDist[w] > via) {
+                        count += 1;
+                        if (apply) {
+                            connect(u, w, via, v);
+                            connect(w, u, via, v);
+                        }
+                    }
+                }
+                resetWitness();
+            }
+            return count;
+        }
+
+        /**
+         * Runs a bounded Dijkstra search from the source over the remaining graph, avoiding the given vertex.
+         */
+        private void witnessSearch(int source, int avoid, double maxDist) {
+            ExtrinsicMinPQ<Integer> pq = new DaryHeapMinPQ<>();
+            witnessDist[source] = 0;
+            touched.add(source);
+            pq.add(source, 0);
+            int settled = 0;
+            while (!pq.isEmpty() && settled < WITNESS_SETTLED_LIMIT) {
+                int from = pq.removeMin();
+                settled += 1;
+                if (witnessDist[from] > maxDist) {
+                    break;
+                }
+                for (int i = 0; i < adjSize[from]; i += 1) {
+                    int to = adjTo[from][i];
+                    if (to == avoid) {
+                        continue;
+                    }
+                    double newDist = witnessDist[from] + adjWeight[from][i];
+                    if (newDist < witnessDist[to]) {
+                        if (witnessDist[to] == Double.POSITIVE_INFINITY) {
+                            touched.add(to);
+                        }
+                        witnessDist[to] = newDist;
+                        if (pq.contains(to)) {
+                            pq.changePriority(to, newDist);
+                        } else {
+                            pq.add(to, newDist);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void resetWitness() {
+            for (int v : touched) {
+                witnessDist[v] = Double.POSITIVE_INFINITY;
+            }
+            touched.clear();
+        }
+
+        /**
+         * Adds or shortens the edge from u to v in the remaining graph.
+         */
+        private void connect(int u, int v, double weight, int middle) {
+            for (int i = 0; i < adjSize[u]; i += 1) {
+                if (adjTo[u][i] == v) {
+                    if (weight < adjWeight[u][i]) {
+                        adjWeight[u][i] = weight;
+                        adjMiddle[u][i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (adjSize[u] == adjTo[u].length) {
+                adjTo[u] = Arrays.copyOf(adjTo[u], adjSize[u] * 2);
+                adjWeight[u] = Arrays.copyOf(adjWeight[u], adjSize[u] * 2);
+                adjMiddle[u] = Arrays.copyOf(adjMiddle[u], adjSize[u] * 2);
+            }
+            adjTo[u][adjSize[u]] = v;
+            adjWeight[u][adjSize[u]] = weight;
+            adjMiddle[u][adjSize[u]] = middle;
+            adjSize[u] += 1;
+        }
+
+        /**
+         * Removes the edge from u to v from the remaining graph.
+         */
+        private void disconnect(int u, int v) {
+            for (int i = 0; i < adjSize[u]; i += 1) {
+                if (adjTo[u][i] == v) {
+                    int last = adjSize[u] - 1;
+                    adjTo[u][i] = adjTo[u][last];
+                    adjWeight[u][i] = adjWeight[u][last];
+                    adjMiddle[u][i] = adjMiddle[u][last];
+                    adjSize[u] = last;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a fingerprint of the street graph's structure and weights for detecting a stale hierarchy file.
+     */
+    private static long fingerprint(StreetGraph graph) {
+        long hash = 31L * graph.size() + graph.numEdges();
+        for (int v = 0; v < graph.size(); v += 1) {
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e += 1) {
+                hash = hash * 31 + graph.target(e);
+                hash = hash * 31 + Double.doubleToLongBits(graph.weight(e));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Memory-maps and reads the contraction hierarchy at the given path, returning null if the file is missing,
+     * truncated or corrupt, was written by a different format version, or was built from a different street graph.
+     *
+     * @param path  the path to the contraction hierarchy file.
+     * @param graph the street graph the hierarchy must have been built from.
+     * @return the contraction hierarchy, or null if it cannot be used.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    static ContractionHierarchy read(Path path, StreetGraph graph) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, graph);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // Every count is checked against the bytes remaining, so a short or corrupt file ends up here.
+            return null;
+        }
+    }
+
+    /**
+     * Reads the contraction hierarchy from the buffer, returning null if it cannot be used.
+     *
+     * @throws BufferUnderflowException if the buffer ends before the hierarchy does.
+     */
+    private static ContractionHierarchy read(ByteBuffer buffer, StreetGraph graph) {
+        if (buffer.remaining() < 3 * Integer.BYTES + Long.BYTES
+                || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        long fingerprint = buffer.getLong();
+        int n = buffer.getInt();
+        if (n != graph.size() || fingerprint != fingerprint(graph)) {
+            return null;
+        }
+        int[] rank = readInts(buffer, n);
+        int[] upOffsets = readInts(buffer, n + 1);
+        int m = upOffsets[n];
+        int[] upTargets = readInts(buffer, m);
+        require(buffer, m, Double.BYTES);
+        double[] upWeights = new double[m];
+        buffer.asDoubleBuffer().get(upWeights);
+        buffer.position(buffer.position() + m * Double.BYTES);
+        int[] upMiddle = readInts(buffer, m);
+        // Out-of-range vertices or edges would otherwise fail later, in the middle of a route query.
+        if (upOffsets[0] != 0) {
+            return null;
+        }
+        for (int v = 0; v < n; v += 1) {
+            if (rank[v] < 0 || rank[v] >= n || upOffsets[v + 1] < upOffsets[v]) {
+                return null;
+            }
+        }
+        for (int e = 0; e < m; e += 1) {
+            if (upTargets[e] < 0 || upTargets[e] >= n || upMiddle[e] < -1 || upMiddle[e] >= n) {
+                return null;
+            }
+        }
+        return new ContractionHierarchy(fingerprint, rank, upOffsets, upTargets, upWeights, upMiddle);
+    }
+
+    /**
+     * Throws if the buffer has fewer than the given number of elements of the given size remaining, so that a corrupt
+     * count cannot cause a huge allocation before the read fails.
+     */
+    private static void require(ByteBuffer buffer, int n, int bytes) {
+        if (n < 0 || n > buffer.remaining() / bytes) {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int n) {
+        require(buffer, n, Integer.BYTES);
+        int[] result = new int[n];
+        buffer.asIntBuffer().get(result);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        return result;
+    }
+
+    /**
+     * Writes this contraction hierarchy to the given path, replacing any existing file.
+     *
+     * @param path the destination path.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path path) throws IOException {
+        // A unique temporary file keeps processes writing at the same time from interleaving their output.
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            writeTo(temp);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Clean up after a failed write; after a successful move, there is nothing to delete.
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes this contraction hierarchy to the given file.
+     */
+    private void writeTo(Path temp) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(rank.length);
+            for (int r : rank) {
+                out.writeInt(r);
+            }
+            for (int offset : upOffsets) {
+                out.writeInt(offset);
+            }
+            for (int target : upTargets) {
+                out.writeInt(target);
+            }
+            for (double weight : upWeights) {
+                out.writeDouble(weight);
+            }
+            for (int middle : upMiddle) {
+                out.writeInt(middle);
+            }
+        }
+    }
+
+    /**
+     * Preprocesses the server's street graph and writes its contraction hierarchy next to the OSM file.
+     *
+     * @param args optionally, the OSM file path and places file path; defaults to the paths used by {@link MapServer}.
+     * @throws Exception if the map cannot be loaded or the hierarchy cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        String osmPath = args.length > 0 ? args[0] : MapServer.OSM_DB_PATH;
+        String placesPath = args.length > 1 ? args[1] : MapServer.PLACES_PATH;
+        MapGraph map = new MapGraph(osmPath, placesPath, SpatialContext.GEO);
+        long start = System.nanoTime();
+        ContractionHierarchy hierarchy = build(map.streetGraph());
+        System.out.printf("Contracted %d vertices into %d upward edges in %.2f seconds%n",
+                map.streetGraph().size(), hierarchy.upTargets.length, (System.nanoTime() - start) / 1e9);
+        hierarchy.write(pathFor(osmPath));
+    }
+}
@@ -0,0 +1,161 @@
+package huskymaps;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe cache that evicts least-recently-used entries once the total weight of its values exceeds a capacity.
+ * Each value's weight is measured once when it is stored, so a cache bounded by entry count weighs every value as 1
+ * while a cache bounded by memory weighs values by their size in bytes. Counts of hits, misses, and evictions are kept
+ * for monitoring.
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ */
+class LruCache<K, V> {
+    /**
+     * Maximum total weight of the stored values.
+     */
+    private final long capacity;
+    /**
+     * Function measuring the weight of a value.
+     */
+    private final ToLongFunction<V> weigher;
+    /**
+     * Entries in access order, from least- to most-recently used, paired with their weights.
+     */
+    private final LinkedHashMap<K, Weighted<V>> entries;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs an empty cache holding at most the given number of entries.
+     *
+     * @param capacity the maximum number of entries.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    LruCache(long capacity) {
+        this(capacity, value -> 1);
+    }
+
+    /**
+     * Constructs an empty cache holding values whose total weight is at most the given capacity.
+     *
+     * @param capacity the maximum total weight.
+     * @param weigher  the function measuring the weight of a value.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    LruCache(long capacity, ToLongFunction<V> weigher) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the value for the key and marks it most-recently used, or null if the key is not cached.
+     *
+     * @param key the key to look up.
+     * @return the cached value, or null.
+     */
+    synchronized V get(K key) {
+        Weighted<V> entry = entries.get(key);
+        if (entry == null) {
+            misses += 1;
+            return null;
+        }
+        hits += 1;
+        return entry.value;
+    }
+
+    /**
+     * Returns the value for the key and marks it most-recently used, or null if the key is not cached, without counting
+     * a hit or miss. Useful for re-checking a key whose miss has already been counted.
+     *
+     * @param key the key to look up.
+     * @return the cached value, or null.
+     */
+    synchronized V peek(K key) {
+        Weighted<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Stores the value for the key, replacing any previous value, and evicts least-recently-used entries until the
+     * total weight fits the capacity. A value heavier than the whole capacity is not stored.
+     *
+     * @param key   the key to store.
+     * @param value the value to store.
+     */
+    synchronized void put(K key, V value) {
+        long w = weigher.applyAsLong(value);
+        Weighted<V> old = entries.remove(key);
+        if (old != null) {
+            weight -= old.weight;
+        }
+        if (w > capacity) {
+            return;
+        }
+        entries.put(key, new Weighted<>(value, w));
+        weight += w;
+        Iterator<Weighted<V>> iterator = entries.values().iterator();
+        while (weight > capacity) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+            evictions += 1;
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of cached entries.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total weight of the cached values.
+     *
+     * @return the total weight of the cached values.
+     */
+    synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * Returns a snapshot of the cache's counters: entries, weight, capacity, hits, misses, and evictions.
+     *
+     * @return a map of each counter name to its value.
+     */
+    synchronized Map<String, Long> stats() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("entries", (long) entries.size());
+        result.put("weight", weight);
+        result.put("capacity", capacity);
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("evictions", evictions);
+        return result;
+    }
+
+    /**
+     * A cached value paired with its weight at the time it was stored.
+     */
+    private static class Weighted<V> {
+        final V value;
+        final long weight;
+
+        Weighted(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
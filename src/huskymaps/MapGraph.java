@@ -1,7 +1,6 @@
 package huskymaps;
 
-import autocomplete.Autocomplete;
-import autocomplete.TreeSetAutocomplete;
+import autocomplete.UpdatableSegmentTreeAutocomplete;
 import graphs.AStarGraph;
 import graphs.Edge;
 import org.locationtech.spatial4j.context.SpatialContext;
@@ -17,6 +16,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.zip.GZIPInputStream;
 
@@ -30,13 +30,21 @@ public class MapGraph implements AStarGraph<Point> {
     private final String osmPath;
     private final String placesPath;
     private final SpatialContext context;
-    private final Map<Point, Set<Edge<Point>>> neighbors;
-    private final Map<String, List<Point>> locations;
-    private final Autocomplete autocomplete;
-    private final Map<CharSequence, Integer> importance;
+    private final StreetGraph streets;
+    private final Point[] vertices;
+    private final Map<Point, Integer> ids;
+    private final PointIndex vertexIndex;
+    private final ContractionHierarchy hierarchy;
+    /**
+     * Searchable places. Updates publish a new snapshot rather than modify this one, so readers never lock and always
+     * see names and locations that agree.
+     */
+    private volatile Places places;
 
     /**
-     * Constructs a new street map graph from the path to an OSM file and a places TSV.
+     * Constructs a new street map graph from the path to an OSM file and a places TSV. Loads a binary
+     * {@link MapSnapshot} written next to the OSM file when it is up to date, and otherwise parses both files and
+     * writes a new snapshot for the next start.
      *
      * @param osmPath    The path to a gzipped OSM (XML) file.
      * @param placesPath The path to a gzipped TSV file representing places and importance.
@@ -50,39 +58,83 @@ public class MapGraph implements AStarGraph<Point> {
         this.placesPath = placesPath;
         this.context = context;
 
-        // Parse the OpenStreetMap (OSM) data using the SAXParser XML tree walker.
-        neighbors = new HashMap<>();
-        Handler handler = new Handler(Set.of(
-                "motorway",
-                "trunk",
-                "primary",
-                "secondary",
-                "tertiary",
-                "unclassified",
-                "residential",
-                "living_street",
-                "motorway_link",
-                "trunk_link",
-                "primary_link",
-                "secondary_link",
-                "tertiary_link"
-        ));
-        SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-        saxParser.parse(new GZIPInputStream(fileStream(osmPath)), handler);
+        // Load the memory-mapped snapshot if it is up to date; otherwise, parse the sources and write a new snapshot.
+        Path snapshotPath = MapSnapshot.pathFor(osmPath);
+        MapSnapshot snapshot = MapSnapshot.read(snapshotPath, osmPath, placesPath);
+        if (snapshot == null) {
+            // Parse the OpenStreetMap (OSM) data using the SAXParser XML tree walker.
+            Handler handler = new Handler(Set.of(
+                    "motorway",
+                    "trunk",
+                    "primary",
+                    "secondary",
+                    "tertiary",
+                    "unclassified",
+                    "residential",
+                    "living_street",
+                    "motorway_link",
+                    "trunk_link",
+                    "primary_link",
+                    "secondary_link",
+                    "tertiary_link"
+            ));
+            SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+            saxParser.parse(new GZIPInputStream(fileStream(osmPath)), handler);
 
-        // Add reachable locations to the Autocomplete engine.
-        locations = handler.byName;
-        autocomplete = new TreeSetAutocomplete();
-        autocomplete.addAll(locations.keySet());
-
-        // Parse the place-importance data.
-        importance = new HashMap<>();
-        try (Scanner input = new Scanner(new GZIPInputStream(fileStream(placesPath)))) {
-            while (input.hasNextLine()) {
-                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
-                importance.put(line.next(), line.nextInt());
+            // Parse the place-importance data.
+            Map<String, Integer> parsedImportance = new HashMap<>();
+            try (Scanner input = new Scanner(new GZIPInputStream(fileStream(placesPath)))) {
+                while (input.hasNextLine()) {
+                    Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                    parsedImportance.put(line.next(), line.nextInt());
+                }
+            }
+
+            snapshot = MapSnapshot.of(handler.neighbors, handler.byName, parsedImportance, osmPath, placesPath);
+            try {
+                snapshot.write(snapshotPath);
+            } catch (IOException e) {
+                // A read-only deployment can still serve requests; it just parses the sources on every start.
+                System.err.println("Could not write map snapshot " + snapshotPath + ": " + e);
             }
         }
+
+        // The street network is held in primitive CSR arrays; Point vertices are only materialized once each.
+        streets = new StreetGraph(snapshot.lat, snapshot.lon, snapshot.offsets, snapshot.targets, snapshot.weights);
+        vertices = new Point[streets.size()];
+        ids = new HashMap<>(vertices.length * 4 / 3 + 1);
+        for (int v = 0; v < vertices.length; v += 1) {
+            vertices[v] = context.getShapeFactory().pointLatLon(streets.lat(v), streets.lon(v));
+            ids.put(vertices[v], v);
+        }
+        Map<String, List<Point>> locations = new HashMap<>(snapshot.names.length * 4 / 3 + 1);
+        for (int i = 0; i < snapshot.names.length; i += 1) {
+            List<Point> points = new ArrayList<>(snapshot.nameOffsets[i + 1] - snapshot.nameOffsets[i]);
+            for (int j = snapshot.nameOffsets[i]; j < snapshot.nameOffsets[i + 1]; j += 1) {
+                points.add(context.getShapeFactory().pointLatLon(snapshot.placeLat[j], snapshot.placeLon[j]));
+            }
+            locations.put(snapshot.names[i], Collections.unmodifiableList(points));
+        }
+
+        // Index the street vertices for nearest-neighbor queries.
+        vertexIndex = new PointIndex(Arrays.asList(vertices));
+
+        // Load the contraction hierarchy if it has been preprocessed for this street graph.
+        hierarchy = ContractionHierarchy.read(ContractionHierarchy.pathFor(osmPath), streets);
+
+        // Add reachable locations to the Autocomplete engine.
+        Map<String, Integer> importance = snapshot.importance;
+        UpdatableSegmentTreeAutocomplete autocomplete = new UpdatableSegmentTreeAutocomplete();
+        autocomplete.addAll(locations.keySet(), name -> weight(importance.get(name.toString())));
+        places = new Places(locations, autocomplete, 0);
+    }
+
+    /**
+     * Returns the autocomplete weight for a location with the given importance rank, where lower ranks are more
+     * important and names without importance data rank last.
+     */
+    private static double weight(Integer rank) {
+        return rank == null ? Double.NEGATIVE_INFINITY : -rank;
     }
 
     /**
@@ -106,21 +158,50 @@ public class MapGraph implements AStarGraph<Point> {
      * @return the id of the location closest to the target.
      */
     public Point closest(Point target) {
-        return Collections.min(neighbors.keySet(), Comparator.comparingDouble(
-                location -> context.calcDistance(target, location)
-        ));
+        return vertexIndex.nearest(target);
+    }
+
+    /**
+     * Returns up to k locations closest to the given target location, ordered from closest to farthest.
+     *
+     * @param target the target location.
+     * @param k      the maximum number of locations to return.
+     * @return up to k locations closest to the target, ordered from closest to farthest.
+     */
+    public List<Point> kNearest(Point target, int k) {
+        return vertexIndex.nearest(target, k);
+    }
+
+    /**
+     * Returns all locations within the given distance of the target location, in no particular order.
+     *
+     * @param target the target location.
+     * @param radius the maximum distance in the units of {@link SpatialContext#calcDistance} (degrees).
+     * @return all locations within the given distance of the target.
+     */
+    public List<Point> withinRadius(Point target, double radius) {
+        return vertexIndex.within(target, radius);
     }
 
     /**
      * Return the names of all locations that prefix-match the query string.
      *
      * @param prefix prefix string that could be any case with or without punctuation.
-     * @return a list of full names of locations matching the prefix.
+     * @return a list of full names of locations matching the prefix, most important first.
      */
     public List<CharSequence> getLocationsByPrefix(String prefix) {
-        List<CharSequence> result = autocomplete.allMatches(prefix);
-        result.sort(Comparator.comparingInt(importance::get));
-        return result;
+        return getLocationsByPrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return the names of the most important locations that prefix-match the query string.
+     *
+     * @param prefix prefix string that could be any case with or without punctuation.
+     * @param limit  the maximum number of names to return.
+     * @return a list of up to limit full names of locations matching the prefix, most important first.
+     */
+    public List<CharSequence> getLocationsByPrefix(String prefix, int limit) {
+        return places.autocomplete.topMatches(prefix, limit);
     }
 
     /**
@@ -130,17 +211,114 @@ public class MapGraph implements AStarGraph<Point> {
      * @return a list of locations whose name matches the location name.
      */
     public List<Point> getLocations(String locationName, Point center) {
-        if (locationName == null || !locations.containsKey(locationName)) {
+        List<Point> named = locationName == null ? null : places.locations.get(locationName);
+        if (named == null) {
             return List.of();
         }
-        List<Point> result = new ArrayList<>(locations.get(locationName));
+        List<Point> result = new ArrayList<>(named);
         result.sort(Comparator.comparingDouble(location -> context.calcDistance(center, location)));
         return result;
     }
 
+    /**
+     * Adds a named location, making it searchable without restarting. Each update applies to a copy of the search
+     * index that shares its segment tree and publishes it at once, so threads searching meanwhile see either all or
+     * none of the update.
+     *
+     * @param name     the full name of the location.
+     * @param location the location.
+     * @param rank     the importance rank of the location, where lower ranks are more important, or null if unknown.
+     *                 A name added more than once keeps its most important rank.
+     */
+    public synchronized void addLocation(String name, Point location, Integer rank) {
+        Map<String, List<Point>> locations = new HashMap<>(places.locations);
+        List<Point> points = new ArrayList<>(locations.getOrDefault(name, List.of()));
+        points.add(location);
+        locations.put(name, Collections.unmodifiableList(points));
+        UpdatableSegmentTreeAutocomplete autocomplete = new UpdatableSegmentTreeAutocomplete(places.autocomplete);
+        autocomplete.addAll(List.of(name), n -> weight(rank));
+        places = new Places(locations, autocomplete, places.version + 1);
+    }
+
+    /**
+     * Removes all locations with the given name from search results. Like {@link #addLocation}, this updates a copy of
+     * the search index and publishes it at once.
+     *
+     * @param name the full name of the locations.
+     * @return true if there were locations with the name.
+     */
+    public synchronized boolean removeLocations(String name) {
+        if (!places.locations.containsKey(name)) {
+            return false;
+        }
+        Map<String, List<Point>> locations = new HashMap<>(places.locations);
+        locations.remove(name);
+        UpdatableSegmentTreeAutocomplete autocomplete = new UpdatableSegmentTreeAutocomplete(places.autocomplete);
+        autocomplete.removeAll(List.of(name));
+        places = new Places(locations, autocomplete, places.version + 1);
+        return true;
+    }
+
+    /**
+     * Returns the number of updates applied to the named locations since they were loaded. Results derived from
+     * {@link #getLocations} can be cached until the version changes.
+     *
+     * @return the number of location updates applied.
+     */
+    public long placesVersion() {
+        return places.version;
+    }
+
+    /**
+     * Returns the primitive {@link StreetGraph} backing this graph. Vertex ids convert to and from locations with
+     * {@link #vertex(int)} and {@link #vertexId(Point)}.
+     *
+     * @return the primitive street graph backing this graph.
+     */
+    public StreetGraph streetGraph() {
+        return streets;
+    }
+
+    /**
+     * Returns the {@link ContractionHierarchy} preprocessed for this graph, or null if none has been preprocessed.
+     *
+     * @return the contraction hierarchy for this graph, or null if none has been preprocessed.
+     */
+    public ContractionHierarchy contractionHierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Returns the location of the given {@link StreetGraph} vertex.
+     *
+     * @param id the vertex id.
+     * @return the location of the vertex.
+     */
+    public Point vertex(int id) {
+        return vertices[id];
+    }
+
+    /**
+     * Returns the {@link StreetGraph} vertex id of the given location, or -1 if the location is not a vertex.
+     *
+     * @param location the location of interest.
+     * @return the vertex id of the location, or -1 if the location is not a vertex.
+     */
+    public int vertexId(Point location) {
+        return ids.getOrDefault(location, -1);
+    }
+
     @Override
     public List<Edge<Point>> neighbors(Point v) {
-        return new ArrayList<>(neighbors.getOrDefault(v, Set.of()));
+        Integer id = ids.get(v);
+        if (id == null) {
+            return new ArrayList<>();
+        }
+        List<Edge<Point>> result = new ArrayList<>(streets.endEdge(id) - streets.firstEdge(id));
+        for (int e = streets.firstEdge(id); e < streets.endEdge(id); e += 1) {
+            result.add(new Edge<>(v, vertices[streets.target(e)], streets.weight(e)));
+        }
+        return result;
     }
 
     @Override
@@ -158,13 +336,26 @@ public class MapGraph implements AStarGraph<Point> {
     }
 
     /**
-     * Adds an edge to this graph if it doesn't already exist, using distance as the weight.
+     * Immutable snapshot of the searchable places: the locations of each name and the autocomplete index over the
+     * names, weighted by importance.
      */
-    private void addEdge(Point from, Point to) {
-        if (!neighbors.containsKey(from)) {
-            neighbors.put(from, new HashSet<>());
+    private static class Places {
+        private final Map<String, List<Point>> locations;
+        private final UpdatableSegmentTreeAutocomplete autocomplete;
+        private final long version;
+
+        /**
+         * Constructs a snapshot of the given places, which must not be modified afterwards.
+         *
+         * @param locations    the locations of each name.
+         * @param autocomplete the autocomplete index over the names.
+         * @param version      the number of updates applied since the places were loaded.
+         */
+        Places(Map<String, List<Point>> locations, UpdatableSegmentTreeAutocomplete autocomplete, long version) {
+            this.locations = locations;
+            this.autocomplete = autocomplete;
+            this.version = version;
         }
-        neighbors.get(from).add(new Edge<>(from, to, estimatedDistance(from, to)));
     }
 
     /**
@@ -174,6 +365,7 @@ public class MapGraph implements AStarGraph<Point> {
         private final Set<String> allowedHighwayTypes;
         private final Map<Long, Point> byId;
         private final Map<String, List<Point>> byName;
+        private final Map<Point, Set<Edge<Point>>> neighbors;
         private String state;
         private long id;
         private String name;
@@ -185,9 +377,20 @@ public class MapGraph implements AStarGraph<Point> {
             this.allowedHighwayTypes = allowedHighwayTypes;
             this.byId = new HashMap<>();
             this.byName = new HashMap<>();
+            this.neighbors = new HashMap<>();
             reset();
         }
 
+        /**
+         * Adds an edge to the parsed graph if it doesn't already exist, using distance as the weight.
+         */
+        private void addEdge(Point from, Point to) {
+            if (!neighbors.containsKey(from)) {
+                neighbors.put(from, new HashSet<>());
+            }
+            neighbors.get(from).add(new Edge<>(from, to, estimatedDistance(from, to)));
+        }
+
         /**
          * Reset the handler state before processing a new way or node.
          */
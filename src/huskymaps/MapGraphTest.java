@@ -0,0 +1,195 @@
+package huskymaps;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Check that {@link MapGraph} place searches stay consistent while locations are added and removed concurrently.
+ * <p>
+ * The writer adds numbered test places, each more important than the last, and removes each one again once
+ * {@value #WINDOW} newer places have been added. Every consistent state therefore holds a run of consecutive places,
+ * which searches must return newest first.
+ *
+ * @see MapGraph
+ */
+class MapGraphTest {
+    /**
+     * The OSM file for a small map that loads quickly.
+     */
+    private static final String OSM_PATH = "data/huskymaps/seattle-tiny.osm.gz";
+    /**
+     * Prefix of the names of the test places, which sorts after the real place names.
+     */
+    private static final String PREFIX = "Zzz test place ";
+    /**
+     * Number of test places added, enough for the search index to compact its pending updates several times.
+     */
+    private static final int NUM_UPDATES = 500;
+    /**
+     * Maximum number of test places present at once, more than the search index keeps pending before it compacts.
+     */
+    private static final int WINDOW = 100;
+    /**
+     * Number of threads searching while the places are updated.
+     */
+    private static final int NUM_READERS = 4;
+    /**
+     * Maximum number of names returned by a ranked search.
+     */
+    private static final int LIMIT = 5;
+
+    public static void main(String[] args) throws Exception {
+        SpatialContext context = SpatialContext.GEO;
+        MapGraph map = new MapGraph(OSM_PATH, MapServer.PLACES_PATH, context);
+        List<String> before = strings(map.getLocationsByPrefix("S", LIMIT));
+        long version = map.placesVersion();
+
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(NUM_READERS);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int r = 0; r < NUM_READERS; r += 1) {
+            int seed = r;
+            results.add(readers.submit(() -> read(map, context, done, new Random(seed))));
+        }
+        boolean removed = true;
+        for (int i = 0; i < NUM_UPDATES; i += 1) {
+            // Newer places are more important, so they rank first.
+            map.addLocation(name(i), point(context, i), NUM_UPDATES - i);
+            if (i >= WINDOW) {
+                removed &= map.removeLocations(name(i - WINDOW));
+            }
+        }
+        done.set(true);
+        int queries = 0;
+        int violations = 0;
+        for (Future<int[]> result : results) {
+            queries += result.get()[0];
+            violations += result.get()[1];
+        }
+        readers.shutdown();
+        System.out.println(queries + " queries during " + NUM_UPDATES + " updates");
+        check("Concurrent searches", queries > 0 && violations == 0);
+        check("Removals", removed && !map.removeLocations(name(0)));
+        // Each add and each successful removal is one update.
+        check("Places version", map.placesVersion() == version + NUM_UPDATES + (NUM_UPDATES - WINDOW));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = NUM_UPDATES - 1; i >= NUM_UPDATES - WINDOW; i -= 1) {
+            expected.add(name(i));
+        }
+        check("Final matches", strings(map.getLocationsByPrefix(PREFIX)).equals(expected));
+        check("Final top matches",
+                strings(map.getLocationsByPrefix(PREFIX, LIMIT)).equals(expected.subList(0, LIMIT)));
+        check("Final locations", map.getLocations(name(0), point(context, 0)).isEmpty()
+                && map.getLocations(name(NUM_UPDATES - 1), point(context, 0))
+                .equals(List.of(point(context, NUM_UPDATES - 1))));
+        check("Unchanged places", strings(map.getLocationsByPrefix("S", LIMIT)).equals(before));
+
+        // A name added again gains a location and keeps its most important rank.
+        String repeated = PREFIX + "repeated";
+        String other = PREFIX + "rival";
+        map.addLocation(repeated, point(context, 0), 10);
+        map.addLocation(other, point(context, 1), 5);
+        map.addLocation(repeated, point(context, 2), 1);
+        map.addLocation(repeated, point(context, 3), null);
+        check("Repeated names", map.getLocations(repeated, point(context, 0)).size() == 3
+                && strings(map.getLocationsByPrefix(PREFIX + "r")).equals(List.of(repeated, other)));
+    }
+
+    /**
+     * Searches for test places until done, checking that each result could come from a consistent state.
+     *
+     * @param map     the map under test.
+     * @param context the spatial context.
+     * @param done    whether the updates have finished.
+     * @param random  the source of places to look up.
+     * @return the number of queries made and the number of inconsistent results.
+     */
+    private static int[] read(MapGraph map, SpatialContext context, AtomicBoolean done, Random random) {
+        int queries = 0;
+        int violations = 0;
+        while (!done.get()) {
+            try {
+                if (!isRun(map.getLocationsByPrefix(PREFIX), WINDOW + 1)
+                        || !isRun(map.getLocationsByPrefix(PREFIX, LIMIT), LIMIT)) {
+                    violations += 1;
+                }
+                // Each test place has exactly one location.
+                int i = random.nextInt(NUM_UPDATES);
+                List<Point> locations = map.getLocations(name(i), point(context, 0));
+                if (!locations.isEmpty() && !locations.equals(List.of(point(context, i)))) {
+                    violations += 1;
+                }
+            } catch (RuntimeException e) {
+                violations += 1;
+            }
+            queries += 1;
+        }
+        return new int[]{queries, violations};
+    }
+
+    /**
+     * Returns whether the names are of at most the given number of consecutive test places, newest first.
+     */
+    private static boolean isRun(List<CharSequence> names, int max) {
+        if (names.size() > max) {
+            return false;
+        }
+        for (int j = 0; j < names.size(); j += 1) {
+            if (!names.get(j).toString().equals(name(index(names.get(0)) - j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the test place with the given number.
+     */
+    private static String name(int i) {
+        return String.format("%s%05d", PREFIX, i);
+    }
+
+    /**
+     * Returns the number of the test place with the given name.
+     */
+    private static int index(CharSequence name) {
+        return Integer.parseInt(name.toString().substring(PREFIX.length()));
+    }
+
+    /**
+     * Returns the location of the test place with the given number.
+     */
+    private static Point point(SpatialContext context, int i) {
+        return context.getShapeFactory().pointLatLon(47.6 + i * 1e-5, -122.3);
+    }
+
+    /**
+     * Returns the names as strings for comparison.
+     */
+    private static List<String> strings(List<CharSequence> names) {
+        List<String> result = new ArrayList<>(names.size());
+        for (CharSequence name : names) {
+            result.add(name.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Prints whether the named check passed.
+     *
+     * @param name the name of the check.
+     * @param pass whether the check passed.
+     */
+    private static void check(String name, boolean pass) {
+        System.out.println(name + (pass ? " PASS!" : " FAIL!"));
+    }
+}
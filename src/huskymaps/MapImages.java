@@ -0,0 +1,119 @@
+package huskymaps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Source of encoded map images that caches them by key and coalesces concurrent misses. When several requests miss the
+ * cache for the same key at once, the first one fetches the image from upstream and the rest wait for its result
+ * rather than each making its own call.
+ *
+ * @see LruCache
+ */
+class MapImages {
+    /**
+     * Encoded images by key, bounded by their total size in bytes.
+     */
+    private final LruCache<String, byte[]> cache;
+    /**
+     * Upstream fetches in progress by key.
+     */
+    private final Map<String, CompletableFuture<byte[]>> inflight;
+
+    /**
+     * Constructs an empty source caching at most the given number of bytes of encoded images.
+     *
+     * @param capacity the maximum total size in bytes of cached images.
+     */
+    MapImages(long capacity) {
+        this.cache = new LruCache<>(capacity, png -> png.length);
+        this.inflight = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the encoded image for the key, fetching it from the URL only if it is neither cached nor already being
+     * fetched by another thread.
+     *
+     * @param key the cache key identifying the image.
+     * @param url the URL for retrieving the image on a miss.
+     * @return the bytes of the encoded image.
+     * @throws IOException if the upstream fetch fails.
+     */
+    byte[] get(String key, URL url) throws IOException {
+        byte[] png = cache.get(key);
+        if (png != null) {
+            return png;
+        }
+        CompletableFuture<byte[]> flight = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // Another flight may have finished between the cache miss and claiming this key.
+            png = cache.peek(key);
+            if (png == null) {
+                png = fetch(url);
+                cache.put(key, png);
+            }
+        } catch (Throwable e) {
+            // Release the key before failing the flight so that a caller arriving after the failure retries upstream
+            // rather than joining a flight that has already failed.
+            inflight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Release the key only after the cache is filled so that later misses find the cached image, but before
+        // completing the flight so that no caller can join it once it is done.
+        inflight.remove(key, flight);
+        flight.complete(png);
+        return png;
+    }
+
+    /**
+     * Returns the result of another thread's fetch, rethrowing its exception if it failed.
+     */
+    private static byte[] await(CompletableFuture<byte[]> flight) throws IOException {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the encoded image retrieved from the URL without caching it.
+     *
+     * @param url the URL for retrieving the image.
+     * @return the bytes of the encoded image.
+     * @throws IOException if an I/O error occurs.
+     */
+    static byte[] fetch(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache's counters.
+     *
+     * @return a map of each counter name to its value.
+     * @see LruCache#stats()
+     */
+    Map<String, Long> stats() {
+        return cache.stats();
+    }
+}
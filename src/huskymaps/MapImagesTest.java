@@ -0,0 +1,159 @@
+package huskymaps;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Check that concurrent misses for the same {@link MapImages} key share one upstream fetch and that a failed fetch is
+ * retried by the next request, using a local stub HTTP server in place of the map API.
+ *
+ * @see MapImages
+ */
+class MapImagesTest {
+    /**
+     * Number of concurrent requests for each key.
+     */
+    private static final int NUM_CLIENTS = 16;
+    /**
+     * Simulated upstream latency in milliseconds, long enough for every client to miss the cache.
+     */
+    private static final int LATENCY = 200;
+    /**
+     * Number of rounds of failed fetches followed by a retry.
+     */
+    private static final int NUM_ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        AtomicInteger flakyCalls = new AtomicInteger();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = path.getBytes();
+            int status = 200;
+            if (path.startsWith("/missing")) {
+                status = 404;
+            } else if (path.startsWith("/flaky") && flakyCalls.getAndIncrement() == 0) {
+                // Fail only the first request to simulate a transient upstream error.
+                status = 503;
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.start();
+        String base = "http://localhost:" + stub.getAddress().getPort();
+        ExecutorService clients = Executors.newFixedThreadPool(NUM_CLIENTS);
+        try {
+            MapImages images = new MapImages(1 << 20);
+
+            // Cold cache: every client misses at once, but only one upstream call should be made.
+            List<byte[]> results = getConcurrently(clients, images, "a", new URL(base + "/a"));
+            boolean same = results.stream().allMatch(result -> Arrays.equals(result, "/a".getBytes()));
+            check("Concurrent misses", upstreamCalls.get() == 1 && same);
+
+            // Warm cache: no further upstream calls.
+            getConcurrently(clients, images, "a", new URL(base + "/a"));
+            check("Cached hits", upstreamCalls.get() == 1);
+
+            // Failed fetch: every client sees the failure from one upstream call, and since the failed flight is gone
+            // by the time any client sees it, an immediate retry goes upstream again. The window for joining a failed
+            // flight is narrow, so repeat the rounds to make a regression likely to show.
+            boolean concurrentFailures = true;
+            boolean retries = true;
+            for (int round = 0; round < NUM_ROUNDS; round += 1) {
+                upstreamCalls.set(0);
+                boolean failed = false;
+                try {
+                    getConcurrently(clients, images, "missing", new URL(base + "/missing"));
+                } catch (ExecutionException e) {
+                    failed = e.getCause() instanceof IOException;
+                }
+                concurrentFailures &= failed && upstreamCalls.get() == 1;
+                failed = false;
+                try {
+                    images.get("missing", new URL(base + "/missing"));
+                } catch (IOException e) {
+                    failed = true;
+                }
+                retries &= failed && upstreamCalls.get() == 2;
+            }
+            check("Concurrent failures", concurrentFailures);
+            check("Retry after failure", retries);
+
+            // Transient failure: the retry succeeds and its result is cached.
+            upstreamCalls.set(0);
+            boolean failed = false;
+            try {
+                images.get("flaky", new URL(base + "/flaky"));
+            } catch (IOException e) {
+                failed = true;
+            }
+            byte[] recovered = images.get("flaky", new URL(base + "/flaky"));
+            images.get("flaky", new URL(base + "/flaky"));
+            check("Recovery after failure",
+                    failed && Arrays.equals(recovered, "/flaky".getBytes()) && upstreamCalls.get() == 2);
+            System.out.println(images.stats());
+        } finally {
+            clients.shutdown();
+            stub.stop(0);
+            ((ExecutorService) stub.getExecutor()).shutdown();
+        }
+    }
+
+    /**
+     * Prints whether the named check passed.
+     *
+     * @param name the name of the check.
+     * @param pass whether the check passed.
+     */
+    private static void check(String name, boolean pass) {
+        System.out.println(name + (pass ? " PASS!" : " FAIL!"));
+    }
+
+    /**
+     * Requests the key from all clients at once and returns their results.
+     *
+     * @param clients the thread pool of clients.
+     * @param images  the image source under test.
+     * @param key     the cache key.
+     * @param url     the upstream URL.
+     * @return the result of each client.
+     * @throws ExecutionException   if any client's request failed.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static List<byte[]> getConcurrently(ExecutorService clients, MapImages images, String key, URL url)
+            throws ExecutionException, InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<byte[]>> futures = new ArrayList<>();
+        for (int i = 0; i < NUM_CLIENTS; i += 1) {
+            futures.add(clients.submit(() -> {
+                ready.await();
+                return images.get(key, url);
+            }));
+        }
+        ready.countDown();
+        List<byte[]> results = new ArrayList<>();
+        for (Future<byte[]> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
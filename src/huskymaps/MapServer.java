@@ -1,21 +1,34 @@
 package huskymaps;
 
+import graphs.AStarGraph;
+import graphs.LandmarkAStarGraph;
 import graphs.shortestpaths.AStarSolver;
 import io.javalin.Javalin;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.core.validation.Validator;
+import minpq.DaryHeapMinPQ;
+import minpq.ExtrinsicMinPQ;
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
 import org.locationtech.spatial4j.shape.Point;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -32,11 +45,11 @@ public class MapServer {
      * The OpenStreetMap XML file path. Downloaded from <a href="http://download.bbbike.org/osm/">BBBike</a>
      * using custom region selection.
      */
-    private static final String OSM_DB_PATH = "data/huskymaps/seattle-small.osm.gz";
+    static final String OSM_DB_PATH = "data/huskymaps/seattle-small.osm.gz";
     /**
      * The place-importance TSV data file path from OpenStreetMap.
      */
-    private static final String PLACES_PATH = "data/huskymaps/places.tsv.gz";
+    static final String PLACES_PATH = "data/huskymaps/places.tsv.gz";
     /**
      * Maximum number of autocomplete search results.
      */
@@ -49,30 +62,145 @@ public class MapServer {
      * The latitudinal distance per pixel when the map is centered on Seattle.
      */
     private static final double SEATTLE_ROOT_LATDPP = 0.23689728184;
+    /**
+     * The priority queue implementation used for route search.
+     */
+    private static final Supplier<ExtrinsicMinPQ<Point>> ROUTE_PQ = DaryHeapMinPQ::new;
+    /**
+     * Number of landmarks for the A* heuristic when no contraction hierarchy has been preprocessed.
+     */
+    private static final int NUM_LANDMARKS = 8;
+    /**
+     * The longitude of the default map center, which seeds landmark selection.
+     */
+    private static final double DEFAULT_LON = -122.3035;
+    /**
+     * The latitude of the default map center, which seeds landmark selection.
+     */
+    private static final double DEFAULT_LAT = 47.6553;
+    /**
+     * Maximum number of routes cached by their snapped start and goal vertices.
+     */
+    private static final int ROUTE_CACHE_SIZE = 1024;
+    /**
+     * Maximum total size in bytes of the encoded map images cached by request path.
+     */
+    private static final long TILE_CACHE_BYTES = 64L << 20;
+    /**
+     * Whether to compose map images from a fixed grid of cached tiles rather than request each viewport as a whole.
+     */
+    private static final boolean TILED = Boolean.parseBoolean(System.getenv().getOrDefault("TILED", "false"));
+    /**
+     * Entity tag version for binary map images. A map image URL only serves different content after the server
+     * restarts with different data or settings, or for images with search markers, after the places are updated.
+     */
+    private static final String ETAG_VERSION = Long.toHexString(System.currentTimeMillis());
+    /**
+     * Cache-Control header for binary map images.
+     */
+    private static final String CACHE_CONTROL = "public, max-age=86400";
+    /**
+     * Cache-Control header for binary map images with search markers, which caches must revalidate before each use
+     * because the places can be updated while the server runs.
+     */
+    private static final String MARKER_CACHE_CONTROL = "no-cache";
+    /**
+     * Number of threads fetching map images from upstream, which mostly wait on the network.
+     */
+    private static final int UPSTREAM_THREADS = 16;
+    /**
+     * Maximum number of map image requests waiting for an upstream thread before new ones are rejected.
+     */
+    private static final int UPSTREAM_QUEUE = 64;
+    /**
+     * Number of threads computing and drawing routes, which are CPU-bound.
+     */
+    private static final int ROUTING_THREADS = Runtime.getRuntime().availableProcessors();
+    /**
+     * Maximum number of route tasks waiting for a routing thread before new ones are rejected.
+     */
+    private static final int ROUTING_QUEUE = 64;
 
     public static void main(String[] args) throws Exception {
         SpatialContext context = SpatialContext.GEO;
         MapGraph map = new MapGraph(OSM_DB_PATH, PLACES_PATH, context);
+        AStarGraph<Point> graph = map;
+        if (map.contractionHierarchy() == null) {
+            Point seed = map.closest(context.getShapeFactory().pointLatLon(DEFAULT_LAT, DEFAULT_LON));
+            graph = new LandmarkAStarGraph<>(map, seed, NUM_LANDMARKS);
+        }
+        AStarGraph<Point> routeGraph = graph;
         Javalin app = Javalin.create(config -> {
             config.addSinglePageRoot("/", "huskymaps/index.html");
         }).start(port());
-        ConcurrentHashMap<String, BufferedImage> cache = new ConcurrentHashMap<>();
+        app.exception(RejectedExecutionException.class, (e, ctx) -> {
+            // Shed load rather than queue without bound when a pool is saturated.
+            ctx.status(503);
+            ctx.header("Retry-After", "1");
+            ctx.result("Server busy");
+        });
+        ExecutorService upstream = boundedPool(UPSTREAM_THREADS, UPSTREAM_QUEUE);
+        ExecutorService routing = boundedPool(ROUTING_THREADS, ROUTING_QUEUE);
+        MapImages tiles = new MapImages(TILE_CACHE_BYTES);
+        TilePyramid pyramid = new TilePyramid(tiles, MapServer::tileUrl);
+        LruCache<Long, List<Point>> routes = new LruCache<>(ROUTE_CACHE_SIZE);
+        BiFunction<Point, Point, List<Point>> router = (start, goal) -> {
+            Point startVertex = map.closest(start);
+            Point goalVertex = map.closest(goal);
+            // Key routes by vertex ids so that every click snapping to the same pair of vertices shares an entry.
+            long key = (long) map.vertexId(startVertex) << 32 | (map.vertexId(goalVertex) & 0xffffffffL);
+            List<Point> route = routes.get(key);
+            if (route == null) {
+                route = route(map, routeGraph, startVertex, goalVertex);
+                routes.put(key, route);
+            }
+            return route;
+        };
         app.get("/map/{lon},{lat},{zoom}/{width}x{height}", ctx -> {
             double lon = ctx.pathParamAsClass("lon", Double.class).get();
             double lat = ctx.pathParamAsClass("lat", Double.class).get();
-            int zoom = ctx.pathParamAsClass("zoom", Integer.class).get();
-            int width = ctx.pathParamAsClass("width", Integer.class).get();
-            int height = ctx.pathParamAsClass("height", Integer.class).get();
+            // Reject sizes and zoom levels beyond what upstream serves with 400 Bad Request before allocating images.
+            int zoom = ctx.pathParamAsClass("zoom", Integer.class)
+                    .check(z -> z >= 0 && z <= TilePyramid.MAX_ZOOM, "Zoom level out of range")
+                    .get();
+            int width = ctx.pathParamAsClass("width", Integer.class)
+                    .check(w -> w >= 1 && w <= TilePyramid.MAX_SIZE, "Width out of range")
+                    .get();
+            int height = ctx.pathParamAsClass("height", Integer.class)
+                    .check(h -> h >= 1 && h <= TilePyramid.MAX_SIZE, "Height out of range")
+                    .get();
+            // Respond with image/png rather than Base64 text if requested, letting browsers cache the image.
+            boolean binary = "png".equals(ctx.queryParam("format"));
+            String term = ctx.queryParam("term");
+            // Read the places version before the locations so that an image is never tagged newer than its markers.
+            String etag = term == null
+                    ? "W/\"" + ETAG_VERSION + "\""
+                    : "W/\"" + ETAG_VERSION + "-" + map.placesVersion() + "\"";
+            String cacheControl = term == null ? CACHE_CONTROL : MARKER_CACHE_CONTROL;
+            if (binary && etag.equals(ctx.header("If-None-Match"))) {
+                ctx.header("ETag", etag);
+                ctx.header("Cache-Control", cacheControl);
+                ctx.status(304);
+                return;
+            }
             Point center = context.getShapeFactory().pointLatLon(lat, lon);
-            BufferedImage image = cache.get(ctx.path());
-            List<Point> locations = map.getLocations(ctx.queryParam("term"), center);
-            if (image == null || !locations.isEmpty()) {
-                // Only make an API call if the cached image is not available/matches or locations are requested.
-                image = ImageIO.read(url(center, zoom, width, height, locations));
-                if (locations.isEmpty()) {
-                    cache.putIfAbsent(ctx.path(), image);
+            String path = ctx.path();
+            // Fetch the base image on the upstream pool while any route is computed on the routing pool.
+            CompletableFuture<MapImage> base = CompletableFuture.supplyAsync(() -> {
+                List<Point> locations = map.getLocations(term, center);
+                try {
+                    if (!locations.isEmpty()) {
+                        // Marker images are specific to the search term, so fetch them without caching.
+                        return new MapImage(MapImages.fetch(url(center, zoom, width, height, locations)));
+                    } else if (TILED) {
+                        return new MapImage(pyramid.render(lon, lat, zoom, width, height));
+                    }
+                    return new MapImage(tiles.get(path, url(center, zoom, width, height, locations)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            }
+            }, upstream);
+            CompletableFuture<MapImage> result = base;
             Validator<Double> startLon = ctx.queryParamAsClass("startLon", Double.class);
             Validator<Double> startLat = ctx.queryParamAsClass("startLat", Double.class);
             Validator<Double> goalLon = ctx.queryParamAsClass("goalLon", Double.class);
@@ -81,49 +209,133 @@ public class MapServer {
                 // Overlay route if the route start and goal are defined.
                 Point start = context.getShapeFactory().pointLatLon(startLat.get(), startLon.get());
                 Point goal = context.getShapeFactory().pointLatLon(goalLat.get(), goalLon.get());
-                List<Point> route = new AStarSolver<>(map, map.closest(start), map.closest(goal)).solution();
-                // Convert route to xPoints and yPoints for Graphics2D.drawPolyline
-                double lonDPP = SEATTLE_ROOT_LONDPP / Math.pow(2, zoom);
-                double latDPP = SEATTLE_ROOT_LATDPP / Math.pow(2, zoom);
-                int[] xPoints = new int[route.size()];
-                int[] yPoints = new int[route.size()];
-                int i = 0;
-                for (Point location : route) {
-                    xPoints[i] = (int) ((location.getLon() - center.getLon()) * (1 / lonDPP)) + (width / 2);
-                    yPoints[i] = (int) ((center.getLat() - location.getLat()) * (1 / latDPP)) + (height / 2);
-                    i += 1;
-                }
-                // Create a copy of the image to avoid modifying cached image
-                image = new BufferedImage(
-                        image.getColorModel(),
-                        image.copyData(null),
-                        image.isAlphaPremultiplied(),
-                        null
+                CompletableFuture<List<Point>> route = CompletableFuture.supplyAsync(
+                        () -> router.apply(start, goal), routing
                 );
-                Graphics2D g2d = image.createGraphics();
-                // Draw route outline
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2d.setColor(new Color(255, 255, 255));
-                g2d.setStroke(new BasicStroke(10.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                g2d.drawPolyline(xPoints, yPoints, xPoints.length);
-                // Draw route on top of outline
-                g2d.setColor(new Color(108, 181, 230));
-                g2d.setStroke(new BasicStroke(5.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                g2d.drawPolyline(xPoints, yPoints, xPoints.length);
-                g2d.dispose();
+                result = base.thenCombineAsync(route, (image, points) -> {
+                    drawRoute(image.raster(), points, center, zoom, width, height);
+                    return image;
+                }, routing);
             }
-            ByteArrayOutputStream os = new ByteArrayOutputStream();
-            ImageIO.write(image, "png", os);
-            ctx.result(Base64.getEncoder().encode(os.toByteArray()));
+            ctx.future(result, value -> {
+                if (value == null) {
+                    // Javalin calls back with null after its exception handler has already written the error.
+                    return;
+                }
+                MapImage image = (MapImage) value;
+                try {
+                    if (binary) {
+                        // Only successful images are cacheable, so errors and load shedding are never reused.
+                        ctx.header("ETag", etag);
+                        ctx.header("Cache-Control", cacheControl);
+                        ctx.contentType("image/png");
+                        if (image.png != null) {
+                            ctx.result(image.png);
+                        } else {
+                            // Stream the encoded image without buffering a copy.
+                            ImageIO.write(image.raster, "png", ctx.res.getOutputStream());
+                        }
+                    } else {
+                        ctx.result(Base64.getEncoder().encode(image.png()));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
         });
-        app.get("/search", ctx -> {
-            List<CharSequence> result = map.getLocationsByPrefix(ctx.queryParam("term"));
-            if (result.size() > MAX_MATCHES) {
-                ctx.json(result.subList(0, MAX_MATCHES));
-            } else {
-                ctx.json(result);
-            }
+        app.get("/route", ctx -> {
+            double startLon = ctx.queryParamAsClass("startLon", Double.class).get();
+            double startLat = ctx.queryParamAsClass("startLat", Double.class).get();
+            double goalLon = ctx.queryParamAsClass("goalLon", Double.class).get();
+            double goalLat = ctx.queryParamAsClass("goalLat", Double.class).get();
+            Point start = context.getShapeFactory().pointLatLon(startLat, startLon);
+            Point goal = context.getShapeFactory().pointLatLon(goalLat, goalLon);
+            ctx.future(CompletableFuture.supplyAsync(() -> {
+                List<Point> route = router.apply(start, goal);
+                double distance = 0;
+                for (int i = 1; i < route.size(); i += 1) {
+                    distance += context.calcDistance(route.get(i - 1), route.get(i));
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("polyline", Polyline.encode(route));
+                result.put("distance", distance * DistanceUtils.DEG_TO_KM * 1000);
+                result.put("nodes", route.size());
+                return result;
+            }, routing), ctx::json);
         });
+        app.get("/stats", ctx -> ctx.json(Map.of("routes", routes.stats(), "tiles", tiles.stats())));
+        app.get("/search", ctx -> ctx.json(map.getLocationsByPrefix(ctx.queryParam("term"), MAX_MATCHES)));
+    }
+
+    /**
+     * Returns a fixed-size thread pool whose task queue holds at most the given number of waiting tasks. Submitting to
+     * a full queue throws {@link RejectedExecutionException}.
+     *
+     * @param threads the number of threads.
+     * @param queue   the maximum number of waiting tasks.
+     * @return the thread pool.
+     */
+    private static ExecutorService boundedPool(int threads, int queue) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue));
+    }
+
+    /**
+     * Draws the route over the map image.
+     *
+     * @param image  the map image.
+     * @param route  the list of locations on the route.
+     * @param center the center of the map image.
+     * @param zoom   the zoom level.
+     * @param width  the width of the map image.
+     * @param height the height of the map image.
+     */
+    private static void drawRoute(BufferedImage image, List<Point> route, Point center, int zoom, int width,
+                                  int height) {
+        // Convert route to xPoints and yPoints for Graphics2D.drawPolyline
+        double lonDPP = SEATTLE_ROOT_LONDPP / Math.pow(2, zoom);
+        double latDPP = SEATTLE_ROOT_LATDPP / Math.pow(2, zoom);
+        int[] xPoints = new int[route.size()];
+        int[] yPoints = new int[route.size()];
+        int i = 0;
+        for (Point location : route) {
+            xPoints[i] = (int) ((location.getLon() - center.getLon()) * (1 / lonDPP)) + (width / 2);
+            yPoints[i] = (int) ((center.getLat() - location.getLat()) * (1 / latDPP)) + (height / 2);
+            i += 1;
+        }
+        Graphics2D g2d = image.createGraphics();
+        // Draw route outline
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(new Color(255, 255, 255));
+        g2d.setStroke(new BasicStroke(10.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.drawPolyline(xPoints, yPoints, xPoints.length);
+        // Draw route on top of outline
+        g2d.setColor(new Color(108, 181, 230));
+        g2d.setStroke(new BasicStroke(5.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.drawPolyline(xPoints, yPoints, xPoints.length);
+        g2d.dispose();
+    }
+
+    /**
+     * Returns the shortest path between two vertices of the map, using the contraction hierarchy if one has been
+     * preprocessed and A* search over the given graph otherwise.
+     *
+     * @param map   the map graph.
+     * @param graph the graph for A* search, which may strengthen the map graph's heuristic.
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     * @return a list of locations representing the shortest path.
+     */
+    private static List<Point> route(MapGraph map, AStarGraph<Point> graph, Point start, Point goal) {
+        ContractionHierarchy hierarchy = map.contractionHierarchy();
+        if (hierarchy == null) {
+            return new AStarSolver<>(graph, start, goal, ROUTE_PQ).solution();
+        }
+        List<Integer> ids = hierarchy.solution(map.vertexId(start), map.vertexId(goal));
+        List<Point> route = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            route.add(map.vertex(id));
+        }
+        return route;
     }
 
     /**
@@ -139,6 +351,31 @@ public class MapServer {
         return PORT;
     }
 
+    /**
+     * Returns the API URL for retrieving a {@value TilePyramid#TILE_SIZE}-pixel map tile.
+     *
+     * @param zoom the zoom level.
+     * @param x    the tile column.
+     * @param y    the tile row.
+     * @return the URL for retrieving the tile.
+     * @throws MalformedURLException if the URL is invalid.
+     */
+    private static URL tileUrl(int zoom, int x, int y) throws MalformedURLException {
+        return new URL(String.format(
+                "%s"
+                        // {username}/{style_id}
+                        + "styles/v1/%s/%s/"
+                        // 512-pixel tiles at {@2x} resolution have the same scale as static images
+                        + "tiles/512/%d/%d/%d@2x"
+                        + "?access_token=%s",
+                System.getenv().getOrDefault("API_URL", "https://api.mapbox.com/"),
+                System.getenv().getOrDefault("USERNAME", "mapbox"),
+                System.getenv().getOrDefault("STYLE_ID", "streets-v11"),
+                zoom, x, y,
+                System.getenv("TOKEN")
+        ));
+    }
+
     /**
      * Return the API URL for retrieving the map image.
      *
@@ -159,13 +396,14 @@ public class MapServer {
             markers += "/";
         }
         return new URL(String.format(
-                "https://api.mapbox.com/"
+                "%s"
                         // {username}/{style_id} and {overlay} (must include trailing slash)
                         + "styles/v1/%s/%s/static/%s"
                         // {lon},{lat},{zoom}/{width}x{height}{@2x}
                         + "%f,%f,%d/%dx%d%s"
                         // Access token and optional parameters
                         + "?access_token=%s&logo=false&attribution=false",
+                System.getenv().getOrDefault("API_URL", "https://api.mapbox.com/"),
                 System.getenv().getOrDefault("USERNAME", "mapbox"),
                 System.getenv().getOrDefault("STYLE_ID", "streets-v11"),
                 markers,
@@ -174,4 +412,53 @@ public class MapServer {
                 System.getenv("TOKEN")
         ));
     }
+
+    /**
+     * A map image held as encoded PNG bytes, as a decoded raster, or both, converting between the two on demand.
+     */
+    private static class MapImage {
+        private byte[] png;
+        private BufferedImage raster;
+
+        MapImage(byte[] png) {
+            this.png = png;
+        }
+
+        MapImage(BufferedImage raster) {
+            this.raster = raster;
+        }
+
+        /**
+         * Returns the raster for drawing on, decoding it if needed. Drawing invalidates the encoded bytes.
+         *
+         * @return the raster.
+         */
+        BufferedImage raster() {
+            if (raster == null) {
+                try {
+                    // Decoding the cached bytes produces a fresh image, so drawing on it leaves the cache unchanged
+                    raster = ImageIO.read(new ByteArrayInputStream(png));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            png = null;
+            return raster;
+        }
+
+        /**
+         * Returns the encoded PNG bytes, encoding the raster if needed.
+         *
+         * @return the encoded PNG bytes.
+         * @throws IOException if the raster cannot be encoded.
+         */
+        byte[] png() throws IOException {
+            if (png == null) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                ImageIO.write(raster, "png", os);
+                png = os.toByteArray();
+            }
+            return png;
+        }
+    }
 }
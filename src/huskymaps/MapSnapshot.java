@@ -0,0 +1,403 @@
+package huskymaps;
+
+import graphs.Edge;
+import org.locationtech.spatial4j.shape.Point;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact binary snapshot of a {@link MapGraph}: the street network in compressed sparse row (CSR) form with
+ * coordinates as primitive arrays, followed by the place-name and place-importance tables. A snapshot is built once from
+ * the OSM XML and places TSV, then memory-mapped on every later start until either source file changes.
+ *
+ * @see MapGraph
+ */
+class MapSnapshot {
+    /**
+     * Magic number identifying a snapshot file.
+     */
+    private static final int MAGIC = 0x48534B59;
+    /**
+     * Format version. Increment whenever the layout written by {@link #write(Path)} changes.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Fingerprints of the OSM and places files this snapshot was built from.
+     */
+    private final long osmLength, osmModified, placesLength, placesModified;
+    /**
+     * Latitude and longitude of each vertex.
+     */
+    final double[] lat, lon;
+    /**
+     * The outgoing edges of vertex {@code v} are at indices {@code offsets[v]} (inclusive) to {@code offsets[v + 1]}
+     * (exclusive) of {@code targets} and {@code weights}.
+     */
+    final int[] offsets;
+    /**
+     * Destination vertex of each edge.
+     */
+    final int[] targets;
+    /**
+     * Weight of each edge.
+     */
+    final double[] weights;
+    /**
+     * Distinct place names. The locations of {@code names[i]} are at indices {@code nameOffsets[i]} (inclusive) to
+     * {@code nameOffsets[i + 1]} (exclusive) of {@code placeLat} and {@code placeLon}.
+     */
+    final String[] names;
+    final int[] nameOffsets;
+    final double[] placeLat, placeLon;
+    /**
+     * Place-importance table.
+     */
+    final Map<String, Integer> importance;
+
+    private MapSnapshot(long osmLength, long osmModified, long placesLength, long placesModified,
+                        double[] lat, double[] lon, int[] offsets, int[] targets, double[] weights,
+                        String[] names, int[] nameOffsets, double[] placeLat, double[] placeLon,
+                        Map<String, Integer> importance) {
+        this.osmLength = osmLength;
+        this.osmModified = osmModified;
+        this.placesLength = placesLength;
+        this.placesModified = placesModified;
+        this.lat = lat;
+        this.lon = lon;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.placeLat = placeLat;
+        this.placeLon = placeLon;
+        this.importance = importance;
+    }
+
+    /**
+     * Returns the path of the snapshot file for the given OSM file.
+     *
+     * @param osmPath the path to a gzipped OSM (XML) file.
+     * @return the path of the snapshot file for the given OSM file.
+     */
+    static Path pathFor(String osmPath) {
+        return Path.of(osmPath + ".snapshot");
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices.
+     */
+    int size() {
+        return lat.length;
+    }
+
+    /**
+     * Builds a snapshot from parsed graph data.
+     *
+     * @param neighbors  the adjacency of the street network.
+     * @param locations  the locations of each place name.
+     * @param importance the place-importance table.
+     * @param osmPath    the OSM file the graph was parsed from.
+     * @param placesPath the places file the importance table was parsed from.
+     * @return a snapshot containing the given data.
+     */
+    static MapSnapshot of(Map<Point, Set<Edge<Point>>> neighbors, Map<String, List<Point>> locations,
+                          Map<String, Integer> importance, String osmPath, String placesPath) {
+        // Every edge target is also a key since streets are added in both directions, but be defensive.
+        Map<Point, Integer> ids = new HashMap<>();
+        List<Point> vertices = new ArrayList<>();
+        for (Map.Entry<Point, Set<Edge<Point>>> entry : neighbors.entrySet()) {
+            idOf(entry.getKey(), ids, vertices);
+            for (Edge<Point> e : entry.getValue()) {
+                idOf(e.to, ids, vertices);
+            }
+        }
+        int n = vertices.size();
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v += 1) {
+            Point p = vertices.get(v);
+            lat[v] = p.getLat();
+            lon[v] = p.getLon();
+            offsets[v + 1] = offsets[v] + neighbors.getOrDefault(p, Set.of()).size();
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int v = 0; v < n; v += 1) {
+            int i = offsets[v];
+            for (Edge<Point> e : neighbors.getOrDefault(vertices.get(v), Set.of())) {
+                targets[i] = ids.get(e.to);
+                weights[i] = e.weight;
+                i += 1;
+            }
+        }
+
+        String[] names = locations.keySet().toArray(new String[0]);
+        int[] nameOffsets = new int[names.length + 1];
+        for (int i = 0; i < names.length; i += 1) {
+            nameOffsets[i + 1] = nameOffsets[i] + locations.get(names[i]).size();
+        }
+        double[] placeLat = new double[nameOffsets[names.length]];
+        double[] placeLon = new double[nameOffsets[names.length]];
+        for (int i = 0; i < names.length; i += 1) {
+            int j = nameOffsets[i];
+            for (Point p : locations.get(names[i])) {
+                placeLat[j] = p.getLat();
+                placeLon[j] = p.getLon();
+                j += 1;
+            }
+        }
+
+        File osm = new File(osmPath);
+        File places = new File(placesPath);
+        return new MapSnapshot(osm.length(), osm.lastModified(), places.length(), places.lastModified(),
+                lat, lon, offsets, targets, weights, names, nameOffsets, placeLat, placeLon, importance);
+    }
+
+    /**
+     * Returns the vertex id for the given point, assigning the next id if the point has not been seen.
+     */
+    private static int idOf(Point p, Map<Point, Integer> ids, List<Point> vertices) {
+        Integer id = ids.get(p);
+        if (id == null) {
+            id = vertices.size();
+            ids.put(p, id);
+            vertices.add(p);
+        }
+        return id;
+    }
+
+    /**
+     * Memory-maps and reads the snapshot at the given path, returning null if the snapshot is missing, truncated or
+     * corrupt, was written by a different format version, or is stale with respect to the source files. Source files
+     * that are not on the file system (for example, packaged as classpath resources) cannot be checked, so they never
+     * match a snapshot.
+     *
+     * @param path       the path to the snapshot file.
+     * @param osmPath    the OSM file the snapshot must have been built from.
+     * @param placesPath the places file the snapshot must have been built from.
+     * @return the snapshot, or null if it cannot be used.
+     * @throws IOException if the snapshot exists but cannot be read.
+     */
+    static MapSnapshot read(Path path, String osmPath, String placesPath) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, osmPath, placesPath);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // Every count is checked against the bytes remaining, so a short file or corrupt count ends up here.
+            return null;
+        }
+    }
+
+    /**
+     * Reads the snapshot from the buffer, returning null if it cannot be used. Offsets and vertex ids are validated
+     * here so that a corrupt value is caught when loading rather than by an out-of-bounds access during a search.
+     *
+     * @throws BufferUnderflowException if the buffer ends before the snapshot does.
+     */
+    private static MapSnapshot read(ByteBuffer buffer, String osmPath, String placesPath) {
+        if (buffer.remaining() < 2 * Integer.BYTES + 4 * Long.BYTES
+                || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        long osmLength = buffer.getLong();
+        long osmModified = buffer.getLong();
+        long placesLength = buffer.getLong();
+        long placesModified = buffer.getLong();
+        if (!matches(osmPath, osmLength, osmModified) || !matches(placesPath, placesLength, placesModified)) {
+            return null;
+        }
+
+        int n = buffer.getInt();
+        if (n < 0) {
+            return null;
+        }
+        double[] lat = readDoubles(buffer, n);
+        double[] lon = readDoubles(buffer, n);
+        int[] offsets = readInts(buffer, n + 1);
+        if (!isOffsets(offsets)) {
+            return null;
+        }
+        int m = offsets[n];
+        int[] targets = readInts(buffer, m);
+        double[] weights = readDoubles(buffer, m);
+        for (int e = 0; e < m; e += 1) {
+            // Negated comparisons also reject NaN weights.
+            if (targets[e] < 0 || targets[e] >= n || !(weights[e] >= 0) || !(weights[e] < Double.POSITIVE_INFINITY)) {
+                return null;
+            }
+        }
+
+        int numNames = buffer.getInt();
+        require(buffer, numNames, Integer.BYTES);
+        String[] names = new String[numNames];
+        for (int i = 0; i < names.length; i += 1) {
+            names[i] = readString(buffer);
+        }
+        int[] nameOffsets = readInts(buffer, names.length + 1);
+        if (!isOffsets(nameOffsets)) {
+            return null;
+        }
+        double[] placeLat = readDoubles(buffer, nameOffsets[names.length]);
+        double[] placeLon = readDoubles(buffer, nameOffsets[names.length]);
+
+        int numImportance = buffer.getInt();
+        require(buffer, numImportance, 2 * Integer.BYTES);
+        Map<String, Integer> importance = new HashMap<>(numImportance * 4 / 3 + 1);
+        for (int i = 0; i < numImportance; i += 1) {
+            String name = readString(buffer);
+            importance.put(name, buffer.getInt());
+        }
+        return new MapSnapshot(osmLength, osmModified, placesLength, placesModified,
+                lat, lon, offsets, targets, weights, names, nameOffsets, placeLat, placeLon, importance);
+    }
+
+    /**
+     * Returns true if the file at the given path is on the file system and matches the fingerprint.
+     */
+    private static boolean matches(String path, long length, long modified) {
+        File file = new File(path);
+        return file.isFile() && file.length() == length && file.lastModified() == modified;
+    }
+
+    /**
+     * Returns true if the CSR offsets start at 0 and never decrease.
+     */
+    private static boolean isOffsets(int[] offsets) {
+        if (offsets[0] != 0) {
+            return false;
+        }
+        for (int i = 1; i < offsets.length; i += 1) {
+            if (offsets[i] < offsets[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Throws if the buffer has fewer than the given number of elements of the given size remaining, so that a corrupt
+     * count cannot cause a huge allocation before the read fails.
+     */
+    private static void require(ByteBuffer buffer, int n, int bytes) {
+        if (n < 0 || n > buffer.remaining() / bytes) {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, int n) {
+        require(buffer, n, Double.BYTES);
+        double[] result = new double[n];
+        buffer.asDoubleBuffer().get(result);
+        buffer.position(buffer.position() + n * Double.BYTES);
+        return result;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int n) {
+        require(buffer, n, Integer.BYTES);
+        int[] result = new int[n];
+        buffer.asIntBuffer().get(result);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        return result;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        require(buffer, length, Byte.BYTES);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes this snapshot to the given path, replacing any existing file.
+     *
+     * @param path the destination path.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path path) throws IOException {
+        // A unique temporary file keeps processes writing at the same time from interleaving their output.
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            writeTo(temp);
+            // Move into place only once complete so a concurrent reader never sees a partial snapshot.
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Clean up after a failed write; after a successful move, there is nothing to delete.
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes this snapshot to the given file.
+     */
+    private void writeTo(Path temp) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(osmLength);
+            out.writeLong(osmModified);
+            out.writeLong(placesLength);
+            out.writeLong(placesModified);
+
+            out.writeInt(size());
+            writeDoubles(out, lat);
+            writeDoubles(out, lon);
+            writeInts(out, offsets);
+            writeInts(out, targets);
+            writeDoubles(out, weights);
+
+            out.writeInt(names.length);
+            for (String name : names) {
+                writeString(out, name);
+            }
+            writeInts(out, nameOffsets);
+            writeDoubles(out, placeLat);
+            writeDoubles(out, placeLon);
+
+            out.writeInt(importance.size());
+            for (Map.Entry<String, Integer> entry : importance.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,265 @@
+package huskymaps;
+
+import org.locationtech.spatial4j.shape.Point;
+
+import java.util.*;
+
+/**
+ * Static k-d tree over geographic {@link Point} locations for nearest-neighbor and radius queries. Each location is
+ * projected onto the unit sphere so that the Euclidean (chord) distance between two projected locations increases
+ * monotonically with their great-circle distance, which lets an ordinary 3-dimensional k-d tree answer queries that are
+ * exact with respect to {@link org.locationtech.spatial4j.context.SpatialContext#calcDistance}.
+ *
+ * @see MapGraph
+ */
+class PointIndex {
+    /**
+     * The indexed locations, rearranged so that the subtree over {@code [lo, hi)} splits at {@code (lo + hi) / 2}.
+     */
+    private final Point[] points;
+    /**
+     * Projected unit-sphere coordinates of each location: {@code coords[3 * i + axis]}.
+     */
+    private final double[] coords;
+
+    /**
+     * Constructs a k-d tree containing the given locations.
+     *
+     * @param locations the locations to index.
+     */
+    PointIndex(Collection<Point> locations) {
+        points = locations.toArray(new Point[0]);
+        coords = new double[3 * points.length];
+        for (int i = 0; i < points.length; i += 1) {
+            project(points[i], coords, i);
+        }
+        build(0, points.length, 0);
+    }
+
+    /**
+     * Returns the number of indexed locations.
+     *
+     * @return the number of indexed locations.
+     */
+    int size() {
+        return points.length;
+    }
+
+    /**
+     * Returns the indexed location closest to the target.
+     *
+     * @param target the target location.
+     * @return the indexed location closest to the target.
+     * @throws NoSuchElementException if the index is empty.
+     */
+    Point nearest(Point target) {
+        if (points.length == 0) {
+            throw new NoSuchElementException("Index is empty");
+        }
+        double[] q = project(target, new double[3], 0);
+        int[] best = {-1};
+        double[] bestDist = {Double.POSITIVE_INFINITY};
+        nearest(0, points.length, 0, q, best, bestDist);
+        return points[best[0]];
+    }
+
+    private void nearest(int lo, int hi, int axis, double[] q, int[] best, double[] bestDist) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double d = dist2(mid, q);
+        if (d < bestDist[0]) {
+            bestDist[0] = d;
+            best[0] = mid;
+        }
+        double diff = q[axis] - coords[3 * mid + axis];
+        int next = (axis + 1) % 3;
+        if (diff < 0) {
+            nearest(lo, mid, next, q, best, bestDist);
+            if (diff * diff < bestDist[0]) {
+                nearest(mid + 1, hi, next, q, best, bestDist);
+            }
+        } else {
+            nearest(mid + 1, hi, next, q, best, bestDist);
+            if (diff * diff < bestDist[0]) {
+                nearest(lo, mid, next, q, best, bestDist);
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code k} indexed locations closest to the target, ordered from closest to farthest.
+     *
+     * @param target the target location.
+     * @param k      the maximum number of locations to return.
+     * @return up to {@code k} indexed locations closest to the target, ordered from closest to farthest.
+     */
+    List<Point> nearest(Point target, int k) {
+        k = Math.min(k, points.length);
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        double[] q = project(target, new double[3], 0);
+        // Sorted candidate arrays: best[0..count) ordered by increasing bestDist.
+        int[] best = new int[k];
+        double[] bestDist = new double[k];
+        int[] count = {0};
+        nearest(0, points.length, 0, q, best, bestDist, count);
+        List<Point> result = new ArrayList<>(count[0]);
+        for (int i = 0; i < count[0]; i += 1) {
+            result.add(points[best[i]]);
+        }
+        return result;
+    }
+
+    private void nearest(int lo, int hi, int axis, double[] q, int[] best, double[] bestDist, int[] count) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double d = dist2(mid, q);
+        int k = best.length;
+        if (count[0] < k || d < bestDist[k - 1]) {
+            int i = Math.min(count[0], k - 1);
+            while (i > 0 && bestDist[i - 1] > d) {
+                best[i] = best[i - 1];
+                bestDist[i] = bestDist[i - 1];
+                i -= 1;
+            }
+            best[i] = mid;
+            bestDist[i] = d;
+            count[0] = Math.min(count[0] + 1, k);
+        }
+        double diff = q[axis] - coords[3 * mid + axis];
+        int next = (axis + 1) % 3;
+        int nearLo = diff < 0 ? lo : mid + 1;
+        int nearHi = diff < 0 ? mid : hi;
+        int farLo = diff < 0 ? mid + 1 : lo;
+        int farHi = diff < 0 ? hi : mid;
+        nearest(nearLo, nearHi, next, q, best, bestDist, count);
+        if (count[0] < k || diff * diff < bestDist[k - 1]) {
+            nearest(farLo, farHi, next, q, best, bestDist, count);
+        }
+    }
+
+    /**
+     * Returns all indexed locations within the given great-circle distance of the target, in no particular order.
+     *
+     * @param target the target location.
+     * @param radius the maximum distance in degrees, as measured by
+     *               {@link org.locationtech.spatial4j.context.SpatialContext#calcDistance}.
+     * @return all indexed locations within the given distance of the target.
+     */
+    List<Point> within(Point target, double radius) {
+        List<Point> result = new ArrayList<>();
+        if (radius < 0) {
+            return result;
+        }
+        double chord = radius >= 180 ? 2 : 2 * Math.sin(Math.toRadians(radius) / 2);
+        double[] q = project(target, new double[3], 0);
+        within(0, points.length, 0, q, chord * chord, result);
+        return result;
+    }
+
+    private void within(int lo, int hi, int axis, double[] q, double limit, List<Point> result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (dist2(mid, q) <= limit) {
+            result.add(points[mid]);
+        }
+        double diff = q[axis] - coords[3 * mid + axis];
+        int next = (axis + 1) % 3;
+        if (diff <= 0 || diff * diff <= limit) {
+            within(lo, mid, next, q, limit, result);
+        }
+        if (diff >= 0 || diff * diff <= limit) {
+            within(mid + 1, hi, next, q, limit, result);
+        }
+    }
+
+    /**
+     * Returns the squared chord distance between the indexed location at index {@code i} and the projected query.
+     */
+    private double dist2(int i, double[] q) {
+        double dx = coords[3 * i] - q[0];
+        double dy = coords[3 * i + 1] - q[1];
+        double dz = coords[3 * i + 2] - q[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Writes the unit-sphere projection of the location to {@code dest[3 * i]} through {@code dest[3 * i + 2]}.
+     *
+     * @return the destination array.
+     */
+    private static double[] project(Point location, double[] dest, int i) {
+        double lat = Math.toRadians(location.getLat());
+        double lon = Math.toRadians(location.getLon());
+        dest[3 * i] = Math.cos(lat) * Math.cos(lon);
+        dest[3 * i + 1] = Math.cos(lat) * Math.sin(lon);
+        dest[3 * i + 2] = Math.sin(lat);
+        return dest;
+    }
+
+    /**
+     * Recursively arranges {@code [lo, hi)} so that the median along the axis is at the middle index, with smaller
+     * coordinates before it and larger coordinates after it.
+     */
+    private void build(int lo, int hi, int axis) {
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, axis);
+            int next = (axis + 1) % 3;
+            build(lo, mid, next);
+            // Iterate rather than recurse on the right half to bound the stack depth.
+            lo = mid + 1;
+            axis = next;
+        }
+    }
+
+    /**
+     * Quickselect: rearranges {@code [left, right]} so that index {@code k} holds the element that would be there if
+     * the range were sorted along the axis.
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            double pivot = coords[3 * ((left + right) >>> 1) + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coords[3 * i + axis] < pivot) {
+                    i += 1;
+                }
+                while (coords[3 * j + axis] > pivot) {
+                    j -= 1;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i += 1;
+                    j -= 1;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        Point p = points[i];
+        points[i] = points[j];
+        points[j] = p;
+        for (int axis = 0; axis < 3; axis += 1) {
+            double c = coords[3 * i + axis];
+            coords[3 * i + axis] = coords[3 * j + axis];
+            coords[3 * j + axis] = c;
+        }
+    }
+}
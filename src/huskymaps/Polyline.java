@@ -0,0 +1,54 @@
+package huskymaps;
+
+import org.locationtech.spatial4j.shape.Point;
+
+import java.util.List;
+
+/**
+ * Encoded polyline format for compactly sending a path of locations as a string. Each latitude and longitude is
+ * rounded to 5 decimal places and stored as the difference from the previous location, written in 5-bit chunks as
+ * printable ASCII characters, following the format used by the Google Maps Platform.
+ */
+class Polyline {
+    /**
+     * Scale factor for rounding coordinates to 5 decimal places.
+     */
+    private static final double PRECISION = 1e5;
+
+    private Polyline() {
+    }
+
+    /**
+     * Returns the encoded polyline for the path of locations.
+     *
+     * @param path the list of locations.
+     * @return the encoded polyline.
+     */
+    static String encode(List<Point> path) {
+        StringBuilder result = new StringBuilder(path.size() * 8);
+        long prevLat = 0;
+        long prevLon = 0;
+        for (Point location : path) {
+            long lat = Math.round(location.getLat() * PRECISION);
+            long lon = Math.round(location.getLon() * PRECISION);
+            encode(lat - prevLat, result);
+            encode(lon - prevLon, result);
+            prevLat = lat;
+            prevLon = lon;
+        }
+        return result.toString();
+    }
+
+    /**
+     * Appends the encoding of a signed coordinate difference to the result.
+     */
+    private static void encode(long value, StringBuilder result) {
+        // Zigzag the sign into the lowest bit so that small negative values stay short.
+        long bits = value < 0 ? ~(value << 1) : value << 1;
+        while (bits >= 0x20) {
+            result.append((char) ((0x20 | (bits & 0x1f)) + 63));
+            bits >>= 5;
+        }
+        result.append((char) (bits + 63));
+    }
+}
@@ -0,0 +1,162 @@
+package huskymaps;
+
+import graphs.Edge;
+import graphs.shortestpaths.AStarSolver;
+import graphs.shortestpaths.BidirectionalAStarSolver;
+import graphs.shortestpaths.DijkstraSolver;
+import org.locationtech.spatial4j.context.SpatialContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Compare different single-pair shortest path implementations on a street map to check that their paths and distances
+ * have the same weights as the paths found by {@link DijkstraSolver}.
+ *
+ * @see AStarSolver
+ * @see BidirectionalAStarSolver
+ * @see ContractionHierarchy
+ * @see DijkstraSolver
+ * @see StreetGraph
+ */
+class ShortestPathMultiTest {
+    /**
+     * Error tolerance for path weights.
+     */
+    private static final double EPSILON = 1e-9;
+    /**
+     * The OSM file for a small map that loads quickly.
+     */
+    private static final String OSM_PATH = "data/huskymaps/seattle-tiny.osm.gz";
+    /**
+     * Number of random start and goal pairs.
+     */
+    private static final int NUM_PAIRS = 200;
+
+    public static void main(String[] args) throws Exception {
+        MapGraph map = new MapGraph(OSM_PATH, MapServer.PLACES_PATH, SpatialContext.GEO);
+        StreetGraph streets = map.streetGraph();
+        List<int[]> pairs = pairs(streets);
+
+        // The hierarchy is checked both as built and after a round trip through its file format.
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(streets);
+        Path file = Files.createTempFile("hierarchy", ".ch");
+        ContractionHierarchy reloaded;
+        try {
+            hierarchy.write(file);
+            reloaded = ContractionHierarchy.read(file, streets);
+        } finally {
+            Files.delete(file);
+        }
+        System.out.println("ContractionHierarchy read " + (reloaded != null ? "PASS!" : "FAIL!"));
+
+        // Testing implementations, each returning the weight of the shortest path or infinity if there is none.
+        Map<String, ToDoubleBiFunction<Integer, Integer>> implementations = new LinkedHashMap<>();
+        implementations.put("AStarSolver", (start, goal) ->
+                weight(streets, new AStarSolver<>(streets, start, goal).solution(), start, goal));
+        implementations.put("BidirectionalAStarSolver", (start, goal) ->
+                weight(streets, new BidirectionalAStarSolver<>(streets, start, goal).solution(), start, goal));
+        implementations.put("ContractionHierarchy distance()", hierarchy::distance);
+        implementations.put("ContractionHierarchy solution()", (start, goal) ->
+                weight(streets, hierarchy.solution(start, goal), start, goal));
+        if (reloaded != null) {
+            implementations.put("ContractionHierarchy distance() [after read]", reloaded::distance);
+            implementations.put("ContractionHierarchy solution() [after read]", (start, goal) ->
+                    weight(streets, reloaded.solution(start, goal), start, goal));
+        }
+
+        // Ground truth for each pair.
+        double[] expected = new double[pairs.size()];
+        int unreachable = 0;
+        for (int i = 0; i < pairs.size(); i += 1) {
+            int[] pair = pairs.get(i);
+            expected[i] = weight(streets, new DijkstraSolver<>(streets, pair[0]).solution(pair[1]), pair[0], pair[1]);
+            unreachable += Double.isInfinite(expected[i]) ? 1 : 0;
+        }
+        System.out.println(pairs.size() + " pairs, " + unreachable + " unreachable");
+
+        // Check each implementation against the reference weights.
+        for (String name : implementations.keySet()) {
+            ToDoubleBiFunction<Integer, Integer> solver = implementations.get(name);
+            int failures = 0;
+            for (int i = 0; i < pairs.size(); i += 1) {
+                int[] pair = pairs.get(i);
+                double actual = solver.applyAsDouble(pair[0], pair[1]);
+                if (!(actual == expected[i] || Math.abs(actual - expected[i]) < EPSILON)) {
+                    failures += 1;
+                    System.out.println("\t" + pair[0] + " to " + pair[1] + ": expected " + expected[i]
+                            + " but got " + actual);
+                }
+            }
+            System.out.println(name + (failures == 0 ? " PASS!" : " FAIL!"));
+        }
+
+        // Compare the work done by unidirectional and bidirectional A* search.
+        long unidirectional = 0;
+        long bidirectional = 0;
+        for (int[] pair : pairs) {
+            unidirectional += new AStarSolver<>(streets, pair[0], pair[1]).numSettled();
+            bidirectional += new BidirectionalAStarSolver<>(streets, pair[0], pair[1]).numSettled();
+        }
+        System.out.printf("Settled vertices: AStarSolver %d, BidirectionalAStarSolver %d (%.0f%%)%n",
+                unidirectional, bidirectional, 100.0 * bidirectional / unidirectional);
+    }
+
+    /**
+     * Returns random start and goal pairs, plus a pair with the same start and goal and an unreachable pair if the
+     * graph has one.
+     *
+     * @param streets the street graph.
+     * @return the start and goal pairs.
+     */
+    private static List<int[]> pairs(StreetGraph streets) {
+        Random random = new Random(0);
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < NUM_PAIRS; i += 1) {
+            pairs.add(new int[]{random.nextInt(streets.size()), random.nextInt(streets.size())});
+        }
+        pairs.add(new int[]{0, 0});
+        DijkstraSolver<Integer> fromZero = new DijkstraSolver<>(streets, 0);
+        for (int v = 1; v < streets.size(); v += 1) {
+            if (fromZero.solution(v).get(0) != 0) {
+                pairs.add(new int[]{0, v});
+                pairs.add(new int[]{v, 0});
+                break;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns the total weight of the path, or infinity if it does not lead from the start to the goal along edges of
+     * the graph.
+     *
+     * @param streets the street graph.
+     * @param path    the path of vertices.
+     * @param start   the start vertex.
+     * @param goal    the goal vertex.
+     * @return the total weight of the path.
+     */
+    private static double weight(StreetGraph streets, List<Integer> path, int start, int goal) {
+        if (path.get(0) != start || path.get(path.size() - 1) != goal) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double total = 0;
+        for (int i = 1; i < path.size(); i += 1) {
+            double min = Double.POSITIVE_INFINITY;
+            for (Edge<Integer> e : streets.neighbors(path.get(i - 1))) {
+                if (e.to.equals(path.get(i))) {
+                    min = Math.min(min, e.weight);
+                }
+            }
+            total += min;
+        }
+        return total;
+    }
+}
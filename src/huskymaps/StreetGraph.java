@@ -0,0 +1,155 @@
+package huskymaps;
+
+import graphs.AStarGraph;
+import graphs.Edge;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link AStarGraph} of street intersections as {@code int} vertices {@code 0} through {@code size() - 1}, stored in
+ * compressed sparse row (CSR) form. The outgoing edges of vertex {@code v} are the edge indices {@code e} from
+ * {@link #firstEdge(int) firstEdge(v)} (inclusive) to {@link #endEdge(int) endEdge(v)} (exclusive), each with a
+ * {@link #target(int)} and {@link #weight(int)}. Iterating edges this way allocates nothing; {@link #neighbors(Integer)}
+ * is provided for compatibility with the generic solvers.
+ *
+ * @see MapGraph
+ * @see AStarGraph
+ */
+public class StreetGraph implements AStarGraph<Integer> {
+    private final double[] lat;
+    private final double[] lon;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    /**
+     * Constructs a street graph from CSR arrays. The arrays are used directly rather than copied.
+     *
+     * @param lat     the latitude of each vertex in degrees.
+     * @param lon     the longitude of each vertex in degrees.
+     * @param offsets the first edge index of each vertex, followed by the total number of edges.
+     * @param targets the destination vertex of each edge.
+     * @param weights the weight of each edge.
+     * @throws IllegalArgumentException if the array lengths are inconsistent.
+     */
+    public StreetGraph(double[] lat, double[] lon, int[] offsets, int[] targets, double[] weights) {
+        if (lat.length != lon.length || offsets.length != lat.length + 1
+                || targets.length != offsets[lat.length] || weights.length != targets.length) {
+            throw new IllegalArgumentException("Inconsistent CSR array lengths");
+        }
+        this.lat = lat;
+        this.lon = lon;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices.
+     */
+    public int size() {
+        return lat.length;
+    }
+
+    /**
+     * Returns the number of directed edges.
+     *
+     * @return the number of directed edges.
+     */
+    public int numEdges() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the latitude of the vertex in degrees.
+     *
+     * @param v the vertex.
+     * @return the latitude of the vertex in degrees.
+     */
+    public double lat(int v) {
+        return lat[v];
+    }
+
+    /**
+     * Returns the longitude of the vertex in degrees.
+     *
+     * @param v the vertex.
+     * @return the longitude of the vertex in degrees.
+     */
+    public double lon(int v) {
+        return lon[v];
+    }
+
+    /**
+     * Returns the index of the first outgoing edge of the vertex.
+     *
+     * @param v the vertex.
+     * @return the index of the first outgoing edge of the vertex.
+     */
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * Returns one past the index of the last outgoing edge of the vertex.
+     *
+     * @param v the vertex.
+     * @return one past the index of the last outgoing edge of the vertex.
+     */
+    public int endEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the destination vertex of the edge.
+     *
+     * @param e the edge index.
+     * @return the destination vertex of the edge.
+     */
+    public int target(int e) {
+        return targets[e];
+    }
+
+    /**
+     * Returns the weight of the edge.
+     *
+     * @param e the edge index.
+     * @return the weight of the edge.
+     */
+    public double weight(int e) {
+        return weights[e];
+    }
+
+    /**
+     * Returns the great-circle distance between the two vertices in degrees, matching the haversine distance computed by
+     * {@link org.locationtech.spatial4j.context.SpatialContext#GEO}.
+     *
+     * @param start the beginning vertex.
+     * @param end   the destination vertex.
+     * @return the great-circle distance between the two vertices in degrees.
+     */
+    public double estimatedDistance(int start, int end) {
+        return DistanceUtils.toDegrees(DistanceUtils.distHaversineRAD(
+                DistanceUtils.toRadians(lat[start]), DistanceUtils.toRadians(lon[start]),
+                DistanceUtils.toRadians(lat[end]), DistanceUtils.toRadians(lon[end])
+        ));
+    }
+
+    @Override
+    public List<Edge<Integer>> neighbors(Integer v) {
+        List<Edge<Integer>> result = new ArrayList<>(endEdge(v) - firstEdge(v));
+        for (int e = firstEdge(v); e < endEdge(v); e += 1) {
+            result.add(new Edge<>(v, targets[e], weights[e]));
+        }
+        return result;
+    }
+
+    @Override
+    public double estimatedDistance(Integer start, Integer end) {
+        return estimatedDistance((int) start, (int) end);
+    }
+}
@@ -0,0 +1,145 @@
+package huskymaps;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Renders map viewports from a fixed XYZ grid of Web Mercator tiles. Any viewport at a given zoom level is covered by
+ * the same few tiles as its neighbors, so panning reuses cached tiles instead of requesting a new image for every
+ * slightly different center.
+ * <p>
+ * Tiles are {@value #TILE_SIZE} pixels square, matching the scale of the static images requested by
+ * {@link MapServer}: at zoom level <i>z</i>, the world is {@code TILE_SIZE * 2^z} pixels wide.
+ *
+ * @see MapImages
+ */
+class TilePyramid {
+    /**
+     * Width and height of a tile in pixels.
+     */
+    static final int TILE_SIZE = 1024;
+    /**
+     * Maximum zoom level, the deepest level of the upstream tile grid.
+     */
+    static final int MAX_ZOOM = 22;
+    /**
+     * Maximum width and height of a viewport in pixels, bounding the memory for each rendered image.
+     */
+    static final int MAX_SIZE = 2560;
+    /**
+     * Maximum latitude representable in Web Mercator.
+     */
+    private static final double MAX_LAT = 85.0511287798;
+    private final MapImages images;
+    private final TileUrls urls;
+
+    /**
+     * Constructs a pyramid loading tiles through the given cache from the given URLs.
+     *
+     * @param images the cache of encoded tile images.
+     * @param urls   the URL of each tile.
+     */
+    TilePyramid(MapImages images, TileUrls urls) {
+        this.images = images;
+        this.urls = urls;
+    }
+
+    /**
+     * Returns an image of the viewport composed from the tiles that cover it.
+     *
+     * @param lon    the longitude of the viewport center.
+     * @param lat    the latitude of the viewport center.
+     * @param zoom   the zoom level.
+     * @param width  the width of the viewport in pixels.
+     * @param height the height of the viewport in pixels.
+     * @return the image of the viewport.
+     * @throws IllegalArgumentException if the zoom level is not between 0 and {@value #MAX_ZOOM}, or if the width or
+     *                                  height is not between 1 and {@value #MAX_SIZE}.
+     * @throws IOException              if a tile cannot be loaded or decoded.
+     */
+    BufferedImage render(double lon, double lat, int zoom, int width, int height) throws IOException {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom level out of range: " + zoom);
+        } else if (width < 1 || width > MAX_SIZE || height < 1 || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Viewport size out of range: " + width + "x" + height);
+        }
+        int n = 1 << zoom;
+        // Global pixel coordinates of the viewport's top-left corner.
+        long left = Math.round(x(lon, zoom)) - width / 2;
+        long top = Math.round(y(lat, zoom)) - height / 2;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        for (long ty = Math.floorDiv(top, TILE_SIZE); ty * TILE_SIZE < top + height; ty += 1) {
+            if (ty < 0 || ty >= n) {
+                // Beyond the poles: leave the background.
+                continue;
+            }
+            for (long tx = Math.floorDiv(left, TILE_SIZE); tx * TILE_SIZE < left + width; tx += 1) {
+                // Wrap around the antimeridian.
+                int x = Math.floorMod(tx, n);
+                BufferedImage tile = tile(zoom, x, (int) ty);
+                g2d.drawImage(tile, (int) (tx * TILE_SIZE - left), (int) (ty * TILE_SIZE - top), null);
+            }
+        }
+        g2d.dispose();
+        return image;
+    }
+
+    /**
+     * Returns the decoded tile at the given grid position.
+     */
+    private BufferedImage tile(int zoom, int x, int y) throws IOException {
+        byte[] png = images.get(zoom + "/" + x + "/" + y, urls.url(zoom, x, y));
+        BufferedImage tile = ImageIO.read(new ByteArrayInputStream(png));
+        if (tile == null) {
+            throw new IOException("Cannot decode tile " + zoom + "/" + x + "/" + y);
+        }
+        return tile;
+    }
+
+    /**
+     * Returns the global pixel x-coordinate of the longitude at the zoom level.
+     *
+     * @param lon  the longitude.
+     * @param zoom the zoom level.
+     * @return the global pixel x-coordinate.
+     */
+    static double x(double lon, int zoom) {
+        return (lon + 180) / 360 * TILE_SIZE * (1L << zoom);
+    }
+
+    /**
+     * Returns the global pixel y-coordinate of the latitude at the zoom level, increasing southward.
+     *
+     * @param lat  the latitude.
+     * @param zoom the zoom level.
+     * @return the global pixel y-coordinate.
+     */
+    static double y(double lat, int zoom) {
+        double phi = Math.toRadians(Math.max(-MAX_LAT, Math.min(MAX_LAT, lat)));
+        double mercator = Math.log(Math.tan(phi) + 1 / Math.cos(phi));
+        return (1 - mercator / Math.PI) / 2 * TILE_SIZE * (1L << zoom);
+    }
+
+    /**
+     * Function returning the upstream URL of a tile.
+     */
+    @FunctionalInterface
+    interface TileUrls {
+        /**
+         * Returns the URL for retrieving the tile at the given grid position.
+         *
+         * @param zoom the zoom level.
+         * @param x    the tile column, from west to east.
+         * @param y    the tile row, from north to south.
+         * @return the URL for retrieving the tile.
+         * @throws MalformedURLException if the URL is invalid.
+         */
+        URL url(int zoom, int x, int y) throws MalformedURLException;
+    }
+}
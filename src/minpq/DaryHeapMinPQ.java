@@ -0,0 +1,180 @@
+package minpq;
+
+import java.util.*;
+
+/**
+ * Indexed <i>d</i>-ary heap implementation of the {@link ExtrinsicMinPQ} interface. Items and priorities are stored in
+ * parallel arrays rather than as {@link PriorityNode} objects, and a {@link HashMap} from each item to its heap index
+ * gives constant-time {@link #contains(Object)} and logarithmic-time {@link #changePriority(Object, double)}. A wider
+ * heap is shallower, which favors workloads like shortest paths where {@code add} and {@code changePriority} (which
+ * only swim up) outnumber {@code removeMin}.
+ *
+ * @param <T> the type of elements in this priority queue.
+ * @see ExtrinsicMinPQ
+ * @see OptimizedHeapMinPQ
+ */
+public class DaryHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
+    /**
+     * Default number of children per heap node.
+     */
+    private static final int DEFAULT_ARITY = 4;
+    /**
+     * Number of children per heap node.
+     */
+    private final int arity;
+    /**
+     * Items in heap order.
+     */
+    private T[] items;
+    /**
+     * Priority values in heap order: {@code priorities[i]} is the priority of {@code items[i]}.
+     */
+    private double[] priorities;
+    /**
+     * {@link Map} of each item to its associated index in the heap arrays.
+     */
+    private final Map<T, Integer> itemToIndex;
+    /**
+     * Number of items in the heap.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty 4-ary heap.
+     */
+    public DaryHeapMinPQ() {
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs an empty heap with the given number of children per node.
+     *
+     * @param arity the number of children per node.
+     * @throws IllegalArgumentException if arity is less than 2.
+     */
+    @SuppressWarnings("unchecked")
+    public DaryHeapMinPQ(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.items = (T[]) new Object[16];
+        this.priorities = new double[16];
+        this.itemToIndex = new HashMap<>();
+        this.size = 0;
+    }
+
+    @Override
+    public void add(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add null item");
+        } else if (contains(item)) {
+            throw new IllegalArgumentException("Already contains " + item);
+        }
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+        }
+        size += 1;
+        swim(size - 1, item, priority);
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return itemToIndex.containsKey(item);
+    }
+
+    @Override
+    public T peekMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("PQ is empty");
+        }
+        return items[0];
+    }
+
+    @Override
+    public T removeMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("PQ is empty");
+        }
+        T min = items[0];
+        itemToIndex.remove(min);
+        size -= 1;
+        T last = items[size];
+        double lastPriority = priorities[size];
+        items[size] = null;
+        if (size > 0) {
+            sink(0, last, lastPriority);
+        }
+        return min;
+    }
+
+    @Override
+    public void changePriority(T item, double priority) {
+        Integer index = itemToIndex.get(item);
+        if (index == null) {
+            throw new NoSuchElementException("PQ does not contain " + item);
+        }
+        if (priority < priorities[index]) {
+            swim(index, item, priority);
+        } else if (priority > priorities[index]) {
+            sink(index, item, priority);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Places the item with the given priority at or above the given (vacant) index, shifting larger parents down
+     * rather than swapping at each level.
+     */
+    private void swim(int index, T item, double priority) {
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            place(index, items[parent], priorities[parent]);
+            index = parent;
+        }
+        place(index, item, priority);
+    }
+
+    /**
+     * Places the item with the given priority at or below the given (vacant) index, shifting smaller children up
+     * rather than swapping at each level.
+     */
+    private void sink(int index, T item, double priority) {
+        while (true) {
+            int first = index * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int child = first;
+            for (int i = first + 1; i < last; i += 1) {
+                if (priorities[i] < priorities[child]) {
+                    child = i;
+                }
+            }
+            if (priorities[child] >= priority) {
+                break;
+            }
+            place(index, items[child], priorities[child]);
+            index = child;
+        }
+        place(index, item, priority);
+    }
+
+    /**
+     * Stores the item and priority at the given index and records the index.
+     */
+    private void place(int index, T item, double priority) {
+        items[index] = item;
+        priorities[index] = priority;
+        itemToIndex.put(item, index);
+    }
+}
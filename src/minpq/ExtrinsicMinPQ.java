@@ -10,6 +10,7 @@ package minpq;
  * @see UnsortedArrayMinPQ
  * @see HeapMinPQ
  * @see OptimizedHeapMinPQ
+ * @see DaryHeapMinPQ
  */
 public interface ExtrinsicMinPQ<T> {
 
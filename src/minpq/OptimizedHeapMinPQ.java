@@ -28,19 +28,19 @@ public class OptimizedHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
 
     @Override
     public void add(T item, double priority) {
-        if (contains(item)) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add null item");
+        } else if (contains(item)) {
             throw new IllegalArgumentException("Already contains " + item);
         }
-        PriorityNode<T> newNode = new PriorityNode<T>(item, priority);
-        this.items.add(newNode);    
+        this.items.add(new PriorityNode<T>(item, priority));
+        this.itemToIndex.put(item, this.size() - 1);
         this.swim(this.size() - 1);
-        this.itemToIndex.put(item, this.items.indexOf(newNode));
-        //System.out.println(items);
     }
 
     @Override
     public boolean contains(T item) {
-        return this.items.contains(new PriorityNode<T>(item, 1.0));
+        return this.itemToIndex.containsKey(item);
     }
 
     @Override
@@ -57,13 +57,10 @@ public class OptimizedHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
             throw new NoSuchElementException("PQ is empty");
         }
         PriorityNode<T> node = this.items.get(0);
-        //System.out.println("removeMin node priority " + node.priority());
-        //System.out.println("removeMin last node priority " + this.items.get(this.items.size() - 1).priority());
         this.swap(0, this.size() - 1);
-        this.items.remove(node);
+        this.items.remove(this.size() - 1);
         this.itemToIndex.remove(node.item());
         if (!isEmpty()) this.sink(0);
-        //System.out.println("after removeMin " + this.items);
         return node.item();
     }
 
@@ -73,8 +70,13 @@ public class OptimizedHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
             throw new NoSuchElementException("PQ does not contain " + item);
         }
         int i = this.itemToIndex.get(item);
+        double oldPriority = this.items.get(i).priority();
         this.items.get(i).setPriority(priority);
-        //System.out.println("after changePriority for node " + node + ": " + this.items);
+        if (priority < oldPriority) {
+            this.swim(i);
+        } else if (priority > oldPriority) {
+            this.sink(i);
+        }
     }
 
     @Override
@@ -82,9 +84,9 @@ public class OptimizedHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
         return this.items.size();
     }
 
-    private int parent(int index) {
-        if (index % 2 != 0) return index / 2;
-        else return (index - 1) / 2;
+    /** Returns the index of the given index's parent. */
+    private static int parent(int index) {
+        return (index - 1) / 2;
     }
 
     /** Returns the index of the given index's left child. */
@@ -114,39 +116,30 @@ public class OptimizedHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
         }
     }
 
-    /** Swap the nodes at the two indices. */
+    /** Swap the nodes at the two indices, keeping {@code itemToIndex} consistent. */
     private void swap(int index1, int index2) {
         PriorityNode<T> temp = this.items.get(index1);
         this.items.set(index1, this.items.get(index2));
         this.items.set(index2, temp);
+        this.itemToIndex.put(this.items.get(index1).item(), index1);
+        this.itemToIndex.put(this.items.get(index2).item(), index2);
     }
 
     /** Bubbles up the node currently at the given index. */
     private void swim(int index) {
-        if (index == 0) return;
-        int parent = this.parent(index);
-        while (this.accessible(parent) && this.items.get(index).priority() < this.items.get(parent).priority()) {
-            this.swap(index, parent);
-            index = parent;
-            parent = this.parent(index);
+        while (index > 0 && this.items.get(index).priority() < this.items.get(parent(index)).priority()) {
+            this.swap(index, parent(index));
+            index = parent(index);
         }
     }
 
     /** Bubbles down the node currently at the given index. */
     private void sink(int index) {
-        int child = this.min(this.left(index), this.right(index));
-        int t1 = 0;
-        int t2 = 0;
-        //System.out.print("sink index " + index);
-        //System.out.print(" len " + size());
-        //System.out.println(" priority " + this.items.get(index).priority());
-        while (this.accessible(child) && child != 0 && this.items.get(index).priority() > this.items.get(child).priority()) {
-            //System.out.println("swap index " + index + " and child " + child);
+        int child = this.min(left(index), right(index));
+        while (child != 0 && this.items.get(index).priority() > this.items.get(child).priority()) {
             this.swap(index, child);
             index = child;
-            child = this.min(this.left(index), this.right(index));
+            child = this.min(left(index), right(index));
         }
     }
-    
-
 }
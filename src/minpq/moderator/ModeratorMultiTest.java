@@ -15,6 +15,7 @@ import java.util.zip.GZIPInputStream;
  * @see UnsortedArrayMinPQ
  * @see HeapMinPQ
  * @see OptimizedHeapMinPQ
+ * @see DaryHeapMinPQ
  */
 class ModeratorMultiTest {
     /**
@@ -72,7 +73,8 @@ class ModeratorMultiTest {
         Map<String, ExtrinsicMinPQ<String>> implementations = Map.of(
                 "UnsortedArrayMinPQ", new UnsortedArrayMinPQ<>(),
                 "HeapMinPQ", new HeapMinPQ<>(),
-                "OptimizedHeapMinPQ", new OptimizedHeapMinPQ<>()
+                "OptimizedHeapMinPQ", new OptimizedHeapMinPQ<>(),
+                "DaryHeapMinPQ", new DaryHeapMinPQ<>()
         );
 
         // Check each implementation against the reference matches.
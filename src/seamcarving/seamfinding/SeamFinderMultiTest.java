@@ -3,6 +3,7 @@ package seamcarving.seamfinding;
 import graphs.shortestpaths.DijkstraSolver;
 import graphs.shortestpaths.ToposortDAGSolver;
 import graphs.shortestpaths.ShortestPathSolver;
+import minpq.DaryHeapMinPQ;
 import seamcarving.Picture;
 import seamcarving.SeamCarver;
 import seamcarving.energy.DualGradientEnergyFunction;
@@ -63,6 +64,10 @@ class SeamFinderMultiTest {
         test(new AdjacencyListSeamFinder(DijkstraSolver::new));
         System.out.println("\n=============================================");
 
+        System.out.println("Testing Djikstra Solver with DaryHeapMinPQ");
+        test(new AdjacencyListSeamFinder((graph, start) -> new DijkstraSolver<>(graph, start, DaryHeapMinPQ::new)));
+        System.out.println("\n=============================================");
+
         System.out.println("Testing Generative Seam Finder");
         test(new GenerativeSeamFinder(DijkstraSolver::new));
         System.out.println("\n=============================================");